@@ -0,0 +1,58 @@
+package com.mybank.contractapproval.benchmark;
+
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public final class BenchmarkContracts {
+
+    private static final Managers[] MANAGERS = Managers.values();
+
+    private BenchmarkContracts() {
+    }
+
+    /**
+     * Builds a customer ID following the X-XXX-XXXXXX pattern from a sequence number.
+     */
+    public static String customerId(long sequence) {
+        var digits = Long.toString(sequence, 36).toUpperCase();
+        var padded = "0".repeat(Math.max(0, 10 - digits.length())) + digits;
+        return padded.charAt(0) + "-" + padded.substring(1, 4) + "-" + padded.substring(4, 10);
+    }
+
+    public static LoanContractRequest pendingContract(long sequence) {
+        var first = MANAGERS[(int) (sequence % MANAGERS.length)];
+        var second = MANAGERS[(int) ((sequence + 1) % MANAGERS.length)];
+        return new LoanContractRequest(
+                customerId(sequence),
+                1000.0 + sequence % 100_000,
+                List.of(new Approver(first, ApprovalStatus.PENDING), new Approver(second, ApprovalStatus.PENDING)),
+                sequence % 2 == 0 ? LoanType.GENERAL : LoanType.MORTGAGE,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        );
+    }
+
+    /**
+     * Builds the contract {@link #pendingContract} becomes once both approvers approved it.
+     */
+    public static LoanContractRequest sentContract(long sequence) {
+        var pending = pendingContract(sequence);
+        return new LoanContractRequest(
+                pending.customerId(),
+                pending.loanAmount(),
+                pending.approvers().stream().map(approver -> new Approver(approver.username(), ApprovalStatus.APPROVED)).toList(),
+                pending.loanType(),
+                ContractStatus.SENT,
+                pending.createdDate(),
+                pending.createdDate().toString()
+        );
+    }
+}
@@ -0,0 +1,53 @@
+package com.mybank.contractapproval.journal;
+
+import com.mybank.contractapproval.benchmark.BenchmarkContracts;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable append throughput of the journal for each durability mode with 16 concurrent
+ * writers, each waiting for its own record like a request thread does.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class ContractJournalBenchmark {
+
+    @Param({"FSYNC", "GROUP_COMMIT", "ASYNC"})
+    public DurabilityMode mode;
+
+    private Path directory;
+    private ContractJournal journal;
+    private JournalRecord record;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        journal = ContractJournal.open(directory, mode);
+        journal.replay(replayed -> { });
+        record = JournalRecord.replace(BenchmarkContracts.pendingContract(1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void append() {
+        journal.append(record).join();
+    }
+}
@@ -0,0 +1,73 @@
+package com.mybank.contractapproval.journal;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybank.contractapproval.benchmark.BenchmarkContracts;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time to bring a repository back from disk: replaying a binary snapshot through the
+ * journal versus parsing the same contracts from a JSON array like contracts.json.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RestartBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private Path directory;
+    private Path json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("restart-benchmark");
+        json = Files.createTempFile("contracts", ".json");
+        List<LoanContractRequest> contracts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            contracts.add(BenchmarkContracts.pendingContract(i));
+        }
+        ContractSnapshot.write(ContractJournal.snapshotPath(directory, 1), 1, contracts);
+        objectMapper.writeValue(json.toFile(), contracts);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(json);
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int restoreFromSnapshot() throws IOException {
+        try (var journal = ContractJournal.open(directory, DurabilityMode.GROUP_COMMIT)) {
+            return new LoanContractRepository(LoanContractRepository.DEFAULT_SENT_HORIZON_MINUTES, journal).count();
+        }
+    }
+
+    @Benchmark
+    public int restoreFromJson() throws IOException {
+        var repository = new LoanContractRepository();
+        List<LoanContractRequest> contracts = objectMapper.readValue(json.toFile(), new TypeReference<>() {
+        });
+        contracts.forEach(repository::save);
+        return repository.count();
+    }
+}
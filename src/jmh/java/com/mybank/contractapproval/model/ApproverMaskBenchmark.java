@@ -0,0 +1,119 @@
+package com.mybank.contractapproval.model;
+
+import com.mybank.contractapproval.benchmark.BenchmarkContracts;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Approval checks over {@link #CONTRACTS} contracts, once by streaming over the approver
+ * list as the decision path did before and once through {@link ApproverMask}.
+ * Half of the contracts have every approver APPROVED. Run with the gc profiler to see the
+ * allocations the streams cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApproverMaskBenchmark {
+
+    private static final int CONTRACTS = 1024;
+    private static final Managers[] MANAGERS = Managers.values();
+
+    private LoanContractRequest[] contracts;
+    private int[] masks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contracts = new LoanContractRequest[CONTRACTS];
+        masks = new int[CONTRACTS];
+        for (int i = 0; i < CONTRACTS; i++) {
+            var contract = BenchmarkContracts.pendingContract(i);
+            if (i % 2 == 0) {
+                List<Approver> approvers = new ArrayList<>();
+                for (Approver approver : contract.approvers()) {
+                    approvers.add(new Approver(approver.username(), ApprovalStatus.APPROVED));
+                }
+                contract = new LoanContractRequest(contract.customerId(), contract.loanAmount(), List.copyOf(approvers),
+                        contract.loanType(), contract.loanContractStatus(), contract.createdDate(),
+                        contract.sentToCustomerDate());
+            }
+            contracts[i] = contract;
+            masks[i] = ApproverMask.of(contract.approvers());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONTRACTS)
+    public int approvedWithList() {
+        int approved = 0;
+        for (LoanContractRequest contract : contracts) {
+            boolean allApproved = contract.approvers().stream()
+                    .allMatch(approver -> approver.status() == ApprovalStatus.APPROVED);
+            boolean sufficient = contract.loanType() == LoanType.GENERAL
+                    ? !contract.approvers().isEmpty()
+                    : contract.approvers().size() >= 2;
+            if (allApproved && sufficient) {
+                approved++;
+            }
+        }
+        return approved;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONTRACTS)
+    public int approvedWithMaskFromList() {
+        int approved = 0;
+        for (LoanContractRequest contract : contracts) {
+            if (ApproverMask.isApproved(ApproverMask.of(contract.approvers()), contract.loanType())) {
+                approved++;
+            }
+        }
+        return approved;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONTRACTS)
+    public int approvedWithStoredMask() {
+        int approved = 0;
+        for (int i = 0; i < CONTRACTS; i++) {
+            if (ApproverMask.isApproved(masks[i], contracts[i].loanType())) {
+                approved++;
+            }
+        }
+        return approved;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONTRACTS)
+    public long[] approvalsPerManagerWithList() {
+        var counts = new long[MANAGERS.length];
+        for (LoanContractRequest contract : contracts) {
+            for (Managers manager : MANAGERS) {
+                counts[manager.ordinal()] += contract.approvers().stream()
+                        .filter(approver -> approver.username() == manager && approver.status() == ApprovalStatus.APPROVED)
+                        .count();
+            }
+        }
+        return counts;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONTRACTS)
+    public long[] approvalsPerManagerWithMask() {
+        var counts = new long[MANAGERS.length];
+        for (int mask : masks) {
+            for (int approved = ApproverMask.approved(mask); approved != 0; approved &= approved - 1) {
+                counts[Integer.numberOfTrailingZeros(approved)]++;
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,66 @@
+package com.mybank.contractapproval.repository;
+
+import com.mybank.contractapproval.benchmark.BenchmarkContracts;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup, replace and delete latency of the repository as the number of stored contracts
+ * grows. With the hash-indexed store the numbers should stay flat across sizes.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoanContractRepositoryBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private LoanContractRepository repository;
+    private String[] customerIds;
+    private LoanContractRequest[] contracts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new LoanContractRepository();
+        customerIds = new String[size];
+        contracts = new LoanContractRequest[size];
+        for (int i = 0; i < size; i++) {
+            contracts[i] = BenchmarkContracts.pendingContract(i);
+            customerIds[i] = contracts[i].customerId();
+            repository.save(contracts[i]);
+        }
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(size);
+    }
+
+    @Benchmark
+    public Object findById() {
+        return repository.findById(customerIds[randomIndex()]);
+    }
+
+    @Benchmark
+    public boolean existsById() {
+        return repository.existsById(customerIds[randomIndex()]);
+    }
+
+    @Benchmark
+    public void replace() {
+        repository.replace(contracts[randomIndex()]);
+    }
+
+    @Benchmark
+    public void deleteAndSave() {
+        var index = randomIndex();
+        repository.deleteById(customerIds[index]);
+        repository.save(contracts[index]);
+    }
+}
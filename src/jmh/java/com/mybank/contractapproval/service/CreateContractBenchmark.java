@@ -0,0 +1,63 @@
+package com.mybank.contractapproval.service;
+
+import com.mybank.contractapproval.benchmark.BenchmarkContracts;
+import com.mybank.contractapproval.exceptions.ConflictException;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of concurrent creates. In {@code distinct} mode every create targets a new
+ * customer and is deleted right after so the store stays the same size; in
+ * {@code colliding} mode all threads race for one customer and all but the first hit the
+ * one-pending-contract conflict.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class CreateContractBenchmark {
+
+    @Param({"distinct", "colliding"})
+    public String customers;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private LoanContractRepository repository;
+    private LoanApprovalService loanApprovalService;
+    private LoanContractRequest collidingContract;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        repository = new LoanContractRepository();
+        loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
+        collidingContract = BenchmarkContracts.pendingContract(0);
+    }
+
+    @Benchmark
+    public boolean create() {
+        if ("colliding".equals(customers)) {
+            return tryCreate(collidingContract);
+        }
+
+        var contract = BenchmarkContracts.pendingContract(sequence.incrementAndGet());
+        var created = tryCreate(contract);
+        repository.deleteById(contract.customerId());
+        return created;
+    }
+
+    private boolean tryCreate(LoanContractRequest contract) {
+        try {
+            loanApprovalService.create(contract);
+            return true;
+        } catch (ConflictException e) {
+            return false;
+        }
+    }
+}
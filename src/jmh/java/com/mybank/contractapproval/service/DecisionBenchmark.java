@@ -0,0 +1,79 @@
+package com.mybank.contractapproval.service;
+
+import com.mybank.contractapproval.benchmark.BenchmarkContracts;
+import com.mybank.contractapproval.exceptions.InvalidDataException;
+import com.mybank.contractapproval.exceptions.NotFoundException;
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.BatchItemResult;
+import com.mybank.contractapproval.model.DecisionVote;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Votes per second when an approver clears a queue of {@link #VOTES} decisions, once
+ * through the single decision path and once through {@link LoanApprovalService#decideAll}.
+ * Each contract gets a vote from both of its approvers, so the bulk path applies two votes
+ * per repository update. Votes alternate between REJECTED and PENDING, so contracts never
+ * leave PENDING and every invocation does the same work.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DecisionBenchmark {
+
+    private static final int VOTES = 1000;
+
+    @Param({"100000"})
+    public int size;
+
+    private LoanApprovalService loanApprovalService;
+    private List<LoanContractRequest> singleVotes;
+    private List<DecisionVote> bulkVotes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var repository = new LoanContractRepository();
+        loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
+
+        singleVotes = new ArrayList<>(VOTES);
+        bulkVotes = new ArrayList<>(VOTES);
+        for (long sequence = 0; sequence < size; sequence++) {
+            var contract = BenchmarkContracts.pendingContract(sequence);
+            repository.save(contract);
+            if (sequence < VOTES / 2) {
+                for (Approver approver : contract.approvers()) {
+                    var status = sequence % 2 == 0 ? ApprovalStatus.REJECTED : ApprovalStatus.PENDING;
+                    singleVotes.add(new LoanContractRequest(contract.customerId(), null,
+                            List.of(new Approver(approver.username(), status)), null, null, null, null));
+                    bulkVotes.add(new DecisionVote(contract.customerId(), approver.username(), status));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VOTES)
+    public LoanContractRequest single() throws NotFoundException, InvalidDataException {
+        LoanContractRequest last = null;
+        for (LoanContractRequest vote : singleVotes) {
+            last = loanApprovalService.decide(vote);
+        }
+        return last;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VOTES)
+    public List<BatchItemResult> bulk() {
+        return loanApprovalService.decideAll(bulkVotes);
+    }
+}
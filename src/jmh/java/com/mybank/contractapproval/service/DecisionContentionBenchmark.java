@@ -0,0 +1,111 @@
+package com.mybank.contractapproval.service;
+
+import com.mybank.contractapproval.benchmark.BenchmarkContracts;
+import com.mybank.contractapproval.exceptions.ConflictException;
+import com.mybank.contractapproval.exceptions.InvalidDataException;
+import com.mybank.contractapproval.exceptions.NotFoundException;
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.BatchItemResult;
+import com.mybank.contractapproval.model.DecisionVote;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import com.mybank.contractapproval.repository.VersionedContract;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decisions per second when {@link #THREADS} threads vote on the same few contracts, once
+ * through the optimistic compare-and-set path of {@link LoanApprovalService#decide} and once
+ * through {@link LoanApprovalService#decideAll}, which holds the contract's map bin for the
+ * whole read-modify-write. {@link Retries} reports the optimistic retries of each iteration
+ * next to the decisions per second. Votes alternate between REJECTED and PENDING, so
+ * contracts never leave PENDING.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(DecisionContentionBenchmark.THREADS)
+@State(Scope.Benchmark)
+public class DecisionContentionBenchmark {
+
+    static final int THREADS = 8;
+
+    @Param({"1", "16"})
+    public int contracts;
+
+    private LoanApprovalService loanApprovalService;
+    private LoanContractRequest[][] votes;
+    private List<DecisionVote>[][] lockedVotes;
+    private long retriesBefore;
+    private final AtomicBoolean retriesReported = new AtomicBoolean();
+
+    /**
+     * The service counts retries across all threads, so one thread per iteration reports
+     * the iteration's total and the others report none.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Retries {
+
+        public long retries;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retries = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void collect(DecisionContentionBenchmark benchmark) {
+            if (benchmark.retriesReported.compareAndSet(false, true)) {
+                retries = benchmark.loanApprovalService.optimisticRetries() - benchmark.retriesBefore;
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        var repository = new LoanContractRepository();
+        loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
+
+        votes = new LoanContractRequest[contracts][2];
+        lockedVotes = (List<DecisionVote>[][]) new List<?>[contracts][2];
+        for (int sequence = 0; sequence < contracts; sequence++) {
+            var contract = BenchmarkContracts.pendingContract(sequence);
+            repository.save(contract);
+            var approver = contract.approvers().get(0).username();
+            for (int i = 0; i < 2; i++) {
+                var status = i == 0 ? ApprovalStatus.REJECTED : ApprovalStatus.PENDING;
+                votes[sequence][i] = new LoanContractRequest(contract.customerId(), null,
+                        List.of(new Approver(approver, status)), null, null, null, null);
+                lockedVotes[sequence][i] = List.of(new DecisionVote(contract.customerId(), approver, status));
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        retriesBefore = loanApprovalService.optimisticRetries();
+        retriesReported.set(false);
+    }
+
+    @Benchmark
+    public VersionedContract optimistic(Retries retries) throws NotFoundException, InvalidDataException, ConflictException {
+        var random = ThreadLocalRandom.current();
+        return loanApprovalService.decide(votes[random.nextInt(contracts)][random.nextInt(2)], null);
+    }
+
+    @Benchmark
+    public List<BatchItemResult> locked(Retries retries) {
+        var random = ThreadLocalRandom.current();
+        return loanApprovalService.decideAll(lockedVotes[random.nextInt(contracts)][random.nextInt(2)]);
+    }
+}
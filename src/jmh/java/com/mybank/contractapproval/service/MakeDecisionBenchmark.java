@@ -0,0 +1,58 @@
+package com.mybank.contractapproval.service;
+
+import com.mybank.contractapproval.benchmark.BenchmarkContracts;
+import com.mybank.contractapproval.exceptions.ConflictException;
+import com.mybank.contractapproval.exceptions.InvalidDataException;
+import com.mybank.contractapproval.exceptions.NotFoundException;
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import com.mybank.contractapproval.repository.VersionedContract;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one vote on a random contract as the store grows, through
+ * {@link LoanApprovalService#decide(LoanContractRequest, Long)} like the decision endpoint:
+ * versioned read, status evaluation and compare-and-set. Votes are REJECTED or PENDING, so
+ * contracts never leave PENDING.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MakeDecisionBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private LoanApprovalService loanApprovalService;
+    private LoanContractRequest[] votes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var repository = new LoanContractRepository();
+        loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
+
+        votes = new LoanContractRequest[size];
+        for (long sequence = 0; sequence < size; sequence++) {
+            var contract = BenchmarkContracts.pendingContract(sequence);
+            repository.save(contract);
+            var status = sequence % 2 == 0 ? ApprovalStatus.REJECTED : ApprovalStatus.PENDING;
+            votes[(int) sequence] = new LoanContractRequest(contract.customerId(), null,
+                    List.of(new Approver(contract.approvers().get(0).username(), status)), null, null, null, null);
+        }
+    }
+
+    @Benchmark
+    public VersionedContract decide() throws NotFoundException, InvalidDataException, ConflictException {
+        return loanApprovalService.decide(votes[ThreadLocalRandom.current().nextInt(size)], null);
+    }
+}
@@ -0,0 +1,72 @@
+package com.mybank.contractapproval.statistics;
+
+import com.mybank.contractapproval.benchmark.BenchmarkContracts;
+import com.mybank.contractapproval.journal.ContractJournal;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loan amount summaries computed by scanning {@link ContractColumns} against the same
+ * summaries computed with {@code mapToDouble} streams over the stored contract records,
+ * once over all contracts and once filtered by status, loan type and approver.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ColumnarScanBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private LoanContractRepository repository;
+    private ContractColumns columns;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        columns = new ContractColumns();
+        repository = new LoanContractRepository(LoanContractRepository.DEFAULT_SENT_HORIZON_MINUTES,
+                (ContractJournal) null, columns);
+        for (long sequence = 0; sequence < size; sequence++) {
+            repository.save(sequence % 4 == 0
+                    ? BenchmarkContracts.sentContract(sequence)
+                    : BenchmarkContracts.pendingContract(sequence));
+        }
+    }
+
+    @Benchmark
+    public DoubleSummaryStatistics streamAll() {
+        return repository.findAllContracts().stream()
+                .mapToDouble(LoanContractRequest::loanAmount)
+                .summaryStatistics();
+    }
+
+    @Benchmark
+    public ColumnSummary columnsAll() {
+        return columns.summarize();
+    }
+
+    @Benchmark
+    public DoubleSummaryStatistics streamFiltered() {
+        return repository.findByStatus(ContractStatus.SENT).stream()
+                .filter(contract -> contract.loanType() == LoanType.GENERAL)
+                .filter(contract -> contract.approvers().stream()
+                        .anyMatch(approver -> approver.username() == Managers.P998ABC))
+                .mapToDouble(LoanContractRequest::loanAmount)
+                .summaryStatistics();
+    }
+
+    @Benchmark
+    public ColumnSummary columnsFiltered() {
+        return columns.summarize(ContractStatus.SENT, LoanType.GENERAL, Managers.P998ABC);
+    }
+}
@@ -0,0 +1,52 @@
+package com.mybank.contractapproval.statistics;
+
+import com.mybank.contractapproval.benchmark.BenchmarkContracts;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import com.mybank.contractapproval.service.LoanApprovalService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the statistics reads behind {@code GET /statistics} as the store grows. Every
+ * fourth contract is SENT; the aggregate-backed reads should stay flat across sizes.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContractStatisticsBenchmark {
+
+    private static final int MINUTES = 5;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private LoanContractRepository repository;
+    private LoanApprovalService loanApprovalService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new LoanContractRepository();
+        loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
+        for (long sequence = 0; sequence < size; sequence++) {
+            repository.save(sequence % 4 == 0
+                    ? BenchmarkContracts.sentContract(sequence)
+                    : BenchmarkContracts.pendingContract(sequence));
+        }
+    }
+
+    @Benchmark
+    public List<ApproverStatistics> calculateApproverStatistics() {
+        return repository.calculateApproverStatistics();
+    }
+
+    @Benchmark
+    public ContractStatisticsDTO statistics() {
+        return loanApprovalService.getStatistics(MINUTES);
+    }
+}
@@ -0,0 +1,72 @@
+package com.mybank.contractapproval.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from {@code --name=value} arguments.
+ *
+ * @param rate      requests per second, spread over the mix at a constant rate
+ * @param warmup    time at the start whose requests are sent but not recorded
+ * @param duration  recorded time after the warmup
+ * @param contracts contracts created before the run for GET and decision requests
+ * @param mix       relative weight of each operation
+ * @param output    directory the per-operation histograms are written to
+ */
+record LoadOptions(int rate, Duration warmup, Duration duration, int contracts,
+                   Map<Operation, Integer> mix, Path output) {
+
+    static final String DEFAULT_MIX = "create=1,decision=4,get=10,statistics=2,delete=1";
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            var name = arg.substring(2, arg.indexOf('='));
+            if (!isApplicationProperty(name)) {
+                values.put(name, arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+
+        var options = new LoadOptions(
+                Integer.parseInt(values.getOrDefault("rate", "1000")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "30"))),
+                Integer.parseInt(values.getOrDefault("contracts", "10000")),
+                parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+                Path.of(values.getOrDefault("output", "build/load")));
+        if (options.rate <= 0 || options.contracts <= 0) {
+            throw new IllegalArgumentException("Rate and contracts must be positive");
+        }
+        return options;
+    }
+
+    /**
+     * Dotted names such as {@code --server.tomcat.threads.max=50} configure the application
+     * under test rather than the load test.
+     */
+    static boolean isApplicationProperty(String name) {
+        return name.contains(".");
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            var parts = entry.split("=");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weight of " + parts[0] + " must not be negative");
+            }
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("The mix needs at least one operation");
+        }
+        return weights;
+    }
+}
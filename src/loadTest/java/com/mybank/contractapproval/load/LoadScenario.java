@@ -0,0 +1,109 @@
+package com.mybank.contractapproval.load;
+
+import com.mybank.contractapproval.model.enums.Managers;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds the requests of each {@link Operation}. GET and decision requests target the
+ * contracts created by {@link #seed}; decisions are REJECTED or PENDING so those contracts
+ * stay PENDING. Deletes remove contracts the run itself created.
+ */
+final class LoadScenario {
+
+    private static final Managers[] MANAGERS = Managers.values();
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI base;
+    private final int contracts;
+    private final AtomicLong sequence;
+    private final Queue<String> created = new ConcurrentLinkedQueue<>();
+
+    LoadScenario(URI base, int contracts) {
+        this.base = base;
+        this.contracts = contracts;
+        this.sequence = new AtomicLong(contracts);
+    }
+
+    /**
+     * Returns the NDJSON body of a batch create holding the contracts the run reads and decides.
+     */
+    String seed() {
+        var body = new StringBuilder();
+        for (long i = 0; i < contracts; i++) {
+            body.append(contract(i)).append('\n');
+        }
+        return body.toString();
+    }
+
+    /**
+     * Returns the call, or {@code null} for a delete while the run has nothing left to delete.
+     */
+    Call call(Operation operation) {
+        var random = ThreadLocalRandom.current();
+        return switch (operation) {
+            case CREATE -> {
+                long next = sequence.getAndIncrement();
+                yield new Call(operation, builder("/create")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(contract(next)))
+                        .build(), customerId(next));
+            }
+            case DECISION -> {
+                int target = random.nextInt(contracts);
+                var status = random.nextBoolean() ? "REJECTED" : "PENDING";
+                yield new Call(operation, builder("/decision")
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString("{\"customerId\":\"" + customerId(target)
+                                + "\",\"approvers\":[{\"username\":\"" + MANAGERS[target % MANAGERS.length]
+                                + "\",\"status\":\"" + status + "\"}]}"))
+                        .build(), customerId(target));
+            }
+            case GET -> {
+                var customerId = customerId(random.nextInt(contracts));
+                yield new Call(operation, builder("/" + customerId).GET().build(), customerId);
+            }
+            case STATISTICS -> new Call(operation, builder("/statistics?minutes=5").GET().build(), null);
+            case DELETE -> {
+                var customerId = created.poll();
+                yield customerId == null ? null : new Call(operation, builder("/" + customerId).DELETE().build(), customerId);
+            }
+        };
+    }
+
+    /**
+     * Makes a contract the run created available to deletes.
+     */
+    void created(Call call) {
+        created.add(call.customerId());
+    }
+
+    HttpRequest.Builder builder(String path) {
+        return HttpRequest.newBuilder(base.resolve("/api/contracts" + path)).timeout(TIMEOUT);
+    }
+
+    record Call(Operation operation, HttpRequest request, String customerId) {
+    }
+
+    private static String contract(long sequence) {
+        return "{\"customerId\":\"" + customerId(sequence) + "\",\"loanAmount\":" + (1000 + sequence % 100_000)
+                + ",\"approvers\":[{\"username\":\"" + MANAGERS[(int) (sequence % MANAGERS.length)]
+                + "\"},{\"username\":\"" + MANAGERS[(int) ((sequence + 1) % MANAGERS.length)]
+                + "\"}],\"loanType\":\"GENERAL\"}";
+    }
+
+    /**
+     * Builds a customer ID following the X-XXX-XXXXXX pattern from a sequence number.
+     */
+    private static String customerId(long sequence) {
+        var digits = Long.toString(sequence, 36).toUpperCase();
+        var padded = "0".repeat(Math.max(0, 10 - digits.length())) + digits;
+        return padded.charAt(0) + "-" + padded.substring(1, 4) + "-" + padded.substring(4, 10);
+    }
+}
@@ -0,0 +1,95 @@
+package com.mybank.contractapproval.load;
+
+import com.mybank.contractapproval.LoanApprovalApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Starts the application on a random port and drives it over HTTP with an open-loop,
+ * constant-rate mix of creates, decisions, GETs, statistics and deletes, then prints
+ * throughput and latency percentiles per operation and writes each operation's HDR
+ * histogram to {@code <output>/<operation>.hgrm}.
+ *
+ * <p>Run with {@code ./gradlew loadTest -PloadArgs="--rate=2000 --duration=60"}. Options
+ * are listed in {@link LoadOptions}; dotted options such as
+ * {@code --server.tomcat.threads.max=50} are passed to the application.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var options = LoadOptions.parse(args);
+        // Default properties lose to application.properties, so the port goes on the command line
+        var applicationArgs = Stream.concat(Stream.of("--server.port=0"), Arrays.stream(args)
+                        .filter(arg -> LoadOptions.isApplicationProperty(arg.substring(2, arg.indexOf('=')))))
+                .toArray(String[]::new);
+
+        try (var context = new SpringApplicationBuilder(LoanApprovalApplication.class)
+                .properties("journal.enabled=false", "logging.level.com.mybank.contractapproval=WARN")
+                .run(applicationArgs)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            var scenario = new LoadScenario(URI.create("http://localhost:" + port), options.contracts());
+
+            seed(client, scenario);
+            System.out.printf("Seeded %d contracts; sending %d requests/s for %ds after a %ds warmup%n",
+                    options.contracts(), options.rate(), options.duration().toSeconds(), options.warmup().toSeconds());
+
+            var driver = new OpenLoopDriver(client, scenario, options.mix());
+            driver.run(options.rate(), options.warmup(), options.duration());
+            report(driver, options);
+        }
+    }
+
+    private static void seed(HttpClient client, LoadScenario scenario) throws IOException, InterruptedException {
+        var response = client.send(scenario.builder("/batch")
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(scenario.seed()))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Seeding contracts failed with status " + response.statusCode());
+        }
+    }
+
+    private static void report(OpenLoopDriver driver, LoadOptions options) throws IOException {
+        Files.createDirectories(options.output());
+        double seconds = options.duration().toMillis() / 1000.0;
+
+        System.out.printf("%-10s %9s %8s %8s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "skipped", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            var histogram = driver.histogram(operation);
+            if (histogram.getTotalCount() == 0 && driver.skipped(operation) == 0) {
+                continue;
+            }
+            System.out.printf(Locale.ROOT, "%-10s %9d %8d %8d %9.1f %9.3f %9.3f %9.3f %9.3f%n",
+                    operation.name().toLowerCase(Locale.ROOT), histogram.getTotalCount(), driver.errors(operation),
+                    driver.skipped(operation), histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+
+            var file = options.output().resolve(operation.name().toLowerCase(Locale.ROOT) + ".hgrm");
+            try (var out = new PrintStream(Files.newOutputStream(file))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        System.out.println("Histograms (ms) written to " + options.output().toAbsolutePath());
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,118 @@
+package com.mybank.contractapproval.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a constant rate regardless of how fast responses come back. Each
+ * request has an intended start time on a fixed schedule and its latency is measured from
+ * that time, not from when it was actually sent, so a stalled server shows up as latency
+ * of every request it delayed instead of as fewer, faster requests (coordinated omission).
+ */
+final class OpenLoopDriver {
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient client;
+    private final LoadScenario scenario;
+    private final Operation[] wheel;
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> skipped = new EnumMap<>(Operation.class);
+    private final AtomicLong inFlight = new AtomicLong();
+
+    OpenLoopDriver(HttpClient client, LoadScenario scenario, Map<Operation, Integer> mix) {
+        this.client = client;
+        this.scenario = scenario;
+        List<Operation> operations = new ArrayList<>();
+        mix.forEach((operation, weight) -> operations.addAll(Collections.nCopies(weight, operation)));
+        this.wheel = operations.toArray(Operation[]::new);
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3));
+            errors.put(operation, new LongAdder());
+            skipped.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Runs the schedule and waits for outstanding responses. Requests intended to start
+     * during {@code warmup} are sent but not recorded.
+     */
+    void run(int rate, Duration warmup, Duration duration) throws InterruptedException {
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / (double) rate;
+        long requests = (long) ((warmup.toNanos() + duration.toNanos()) / intervalNanos);
+        long start = System.nanoTime();
+        long recordFrom = start + warmup.toNanos();
+
+        for (long i = 0; i < requests; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            long delay = intended - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            send(wheel[ThreadLocalRandom.current().nextInt(wheel.length)], intended, intended >= recordFrom);
+        }
+
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void send(Operation operation, long intended, boolean record) {
+        var call = scenario.call(operation);
+        if (call == null) {
+            if (record) {
+                skipped.get(operation).increment();
+            }
+            return;
+        }
+
+        inFlight.incrementAndGet();
+        client.sendAsync(call.request(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+                    boolean ok = failure == null && response.statusCode() < 400;
+                    if (ok && operation == Operation.CREATE) {
+                        scenario.created(call);
+                    }
+                    if (record) {
+                        histograms.get(operation).recordValue(Math.min(micros, HIGHEST_LATENCY_MICROS));
+                        if (!ok) {
+                            errors.get(operation).increment();
+                        }
+                    }
+                    inFlight.decrementAndGet();
+                });
+    }
+
+    /**
+     * Latencies in microseconds from the intended start time, recorded after the warmup.
+     */
+    Histogram histogram(Operation operation) {
+        return histograms.get(operation);
+    }
+
+    long errors(Operation operation) {
+        return errors.get(operation).sum();
+    }
+
+    long skipped(Operation operation) {
+        return skipped.get(operation).sum();
+    }
+}
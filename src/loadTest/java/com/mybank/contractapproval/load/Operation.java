@@ -0,0 +1,12 @@
+package com.mybank.contractapproval.load;
+
+/**
+ * Requests the load test sends, one per {@code LoanApprovalController} endpoint it drives.
+ */
+enum Operation {
+    CREATE,
+    DECISION,
+    GET,
+    STATISTICS,
+    DELETE
+}
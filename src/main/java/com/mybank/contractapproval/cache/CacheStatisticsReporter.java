@@ -0,0 +1,35 @@
+package com.mybank.contractapproval.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs hit, miss and eviction counters of every cache.
+ */
+@Component
+@Slf4j
+@AllArgsConstructor
+public class CacheStatisticsReporter {
+
+    private final CacheManager cacheManager;
+
+    @Scheduled(fixedRateString = "${cache.statistics.log.minutes}", initialDelayString = "${cache.statistics.log.minutes}",
+            timeUnit = TimeUnit.MINUTES)
+    public void report() {
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof CaffeineCache cache) {
+                CacheStats stats = cache.getNativeCache().stats();
+                log.info("Cache '{}': {} entries, {} hits, {} misses, {} evictions.", name,
+                        cache.getNativeCache().estimatedSize(), stats.hitCount(), stats.missCount(),
+                        stats.evictionCount());
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.mybank.contractapproval.cache;
+
+import com.mybank.contractapproval.exceptions.ConflictException;
+import com.mybank.contractapproval.exceptions.InvalidDataException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Builds and parses entity tags from repository versions. Tags are prefixed with a random
+ * value chosen at startup because versions start over when the application restarts.
+ */
+@Component
+public class ContractETags {
+
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+
+    public String contract(long version) {
+        return "\"" + epoch + "-c" + version + "\"";
+    }
+
+    public String statistics(long version, int minutes, long sentContracts) {
+        return "\"" + epoch + "-s" + version + "-" + minutes + "-" + sentContracts + "\"";
+    }
+
+    /**
+     * Tag of the gzipped representation of the state {@code etag} was built for. Strong tags
+     * must differ per content encoding.
+     */
+    public static String gzip(String etag) {
+        return etag.substring(0, etag.length() - 1) + GZIP_SUFFIX + "\"";
+    }
+
+    /**
+     * Returns the contract version an {@code If-Match} header requires, or {@code null}
+     * when there is no header or it is {@code *}. A tag that can never match the current
+     * contract, such as a weak tag or one issued before a restart, is a conflict. The tag
+     * of the gzipped representation names the same version.
+     */
+    public Long expectedVersion(String ifMatch) throws ConflictException, InvalidDataException {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        var tag = ifMatch.trim();
+        if (tag.contains(",")) {
+            throw new InvalidDataException("If-Match must hold a single entity tag");
+        }
+        var prefix = "\"" + epoch + "-c";
+        if (!tag.startsWith(prefix) || !tag.endsWith("\"")) {
+            throw new ConflictException("Contract has changed since " + tag);
+        }
+        int end = tag.endsWith(GZIP_SUFFIX + "\"") ? tag.length() - 1 - GZIP_SUFFIX.length() : tag.length() - 1;
+        try {
+            return Long.parseLong(tag.substring(prefix.length(), end));
+        } catch (NumberFormatException e) {
+            throw new ConflictException("Contract has changed since " + tag);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.mybank.contractapproval.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybank.contractapproval.config.CacheConfig;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import com.mybank.contractapproval.service.LoanApprovalService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches the hot GET responses as encoded JSON bytes, so a cache hit skips Jackson entirely.
+ * Entries are evicted by the same repository mutations as before.
+ */
+@Component
+public class ContractResponseCache {
+
+    private final LoanApprovalService loanApprovalService;
+    private final LoanContractRepository repository;
+    private final ContractETags eTags;
+    private final ObjectMapper objectMapper;
+    private final int gzipMinBytes;
+
+    public ContractResponseCache(LoanApprovalService loanApprovalService,
+                                 LoanContractRepository repository,
+                                 ContractETags eTags,
+                                 ObjectMapper objectMapper,
+                                 @Value("${cache.response.gzip.min.bytes}") int gzipMinBytes) {
+        this.loanApprovalService = loanApprovalService;
+        this.repository = repository;
+        this.eTags = eTags;
+        this.objectMapper = objectMapper;
+        this.gzipMinBytes = gzipMinBytes;
+    }
+
+    @Cacheable(value = CacheConfig.CONTRACTS, key = "#customerId", sync = true)
+    public EncodedResponse contract(String customerId) {
+        var stored = repository.findVersionedById(customerId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Customer '" + customerId + "' not found"));
+        return encode(eTags.contract(stored.version()), stored.contract());
+    }
+
+    /**
+     * The tag combines the repository version, read before the statistics so it is never
+     * newer than them, with the sent contracts count, which also changes as time passes.
+     */
+    @Cacheable(value = CacheConfig.STATISTICS, key = "#minutes", sync = true)
+    public EncodedResponse statistics(int minutes) {
+        long version = repository.version();
+        var statistics = loanApprovalService.getStatistics(minutes);
+        return encode(eTags.statistics(version, minutes, statistics.getSentContractsCount()), statistics);
+    }
+
+    EncodedResponse encode(String etag, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new EncodedResponse(etag, json, json.length >= gzipMinBytes ? gzip(json) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode " + body.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        var compressed = new ByteArrayOutputStream(json.length / 4);
+        try (var out = new GZIPOutputStream(compressed)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
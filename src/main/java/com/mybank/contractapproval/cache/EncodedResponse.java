@@ -0,0 +1,77 @@
+package com.mybank.contractapproval.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * A JSON response body encoded once and served as is on every cache hit, together with a
+ * gzipped copy when the body is large enough for compression to pay off, and the entity tag
+ * of the state it was encoded from.
+ */
+public record EncodedResponse(
+        String etag,
+        byte[] json,
+        byte[] gzip
+) {
+
+    /**
+     * Size of the cached bytes, used to weigh cache entries.
+     */
+    public int weight() {
+        return etag.length() + json.length + (gzip == null ? 0 : gzip.length);
+    }
+
+    /**
+     * Returns the gzipped body when there is one and {@code acceptEncoding} allows it,
+     * otherwise the plain JSON. The gzipped body carries its own strong ETag, since it is a
+     * different byte sequence. Spring MVC answers a matching {@code If-None-Match} with 304
+     * from the ETag alone, without writing the body.
+     */
+    public ResponseEntity<byte[]> toResponseEntity(String acceptEncoding) {
+        if (gzip == null) {
+            return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(json);
+        }
+        if (acceptsGzip(acceptEncoding)) {
+            return ResponseEntity.ok().eTag(ContractETags.gzip(etag)).contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip);
+        }
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).body(json);
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header allows gzip: listed as {@code gzip} or
+     * {@code x-gzip}, or covered by {@code *}, with a q-value above zero.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzipQuality = -1;
+        double anyQuality = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            var parameters = coding.split(";");
+            var name = parameters[0].trim();
+            double quality = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                var parameter = parameters[i].trim();
+                if (parameter.length() > 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q')
+                        && parameter.charAt(1) == '=') {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                gzipQuality = Math.max(gzipQuality, quality);
+            } else if (name.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        return (gzipQuality >= 0 ? gzipQuality : anyQuality) > 0;
+    }
+}
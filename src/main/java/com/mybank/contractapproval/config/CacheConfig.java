@@ -0,0 +1,46 @@
+package com.mybank.contractapproval.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mybank.contractapproval.cache.EncodedResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Bounded caches of encoded responses, one per cached endpoint. Entries are evicted per key
+ * by the repository mutations, so a bound on the cached bytes is the only limit the
+ * contracts cache needs. Statistics also expire after a short time because the sent
+ * contracts window moves on without any mutation.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String CONTRACTS = "contracts";
+    public static final String STATISTICS = "statistics";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${cache.contracts.maximum.bytes}") long contractsMaximumBytes,
+                                     @Value("${cache.statistics.maximum.size}") long statisticsMaximumSize,
+                                     @Value("${cache.statistics.expire.seconds}") long statisticsExpireSeconds) {
+        var cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                new CaffeineCache(CONTRACTS, Caffeine.newBuilder()
+                        .maximumWeight(contractsMaximumBytes)
+                        .weigher((Object customerId, Object response) -> ((EncodedResponse) response).weight())
+                        .recordStats()
+                        .build()),
+                new CaffeineCache(STATISTICS, Caffeine.newBuilder()
+                        .maximumSize(statisticsMaximumSize)
+                        .expireAfterWrite(Duration.ofSeconds(statisticsExpireSeconds))
+                        .recordStats()
+                        .build())
+        ));
+        return cacheManager;
+    }
+}
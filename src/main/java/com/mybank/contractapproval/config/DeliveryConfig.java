@@ -0,0 +1,60 @@
+package com.mybank.contractapproval.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybank.contractapproval.delivery.ContractDispatcher;
+import com.mybank.contractapproval.delivery.ContractOutbox;
+import com.mybank.contractapproval.delivery.DeliverySettings;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "delivery.enabled", havingValue = "true")
+public class DeliveryConfig {
+
+    @Bean
+    public DeliverySettings deliverySettings(@Value("${delivery.url}") URI url,
+                                             @Value("${delivery.batch.size}") int batchSize,
+                                             @Value("${delivery.max.concurrent}") int maxConcurrent,
+                                             @Value("${delivery.retry.max.attempts}") int maxAttempts,
+                                             @Value("${delivery.retry.initial.backoff.millis}") long initialBackoff,
+                                             @Value("${delivery.retry.max.backoff.millis}") long maxBackoff,
+                                             @Value("${delivery.timeout.millis}") long timeout,
+                                             @Value("${delivery.breaker.failure.threshold}") int failureThreshold,
+                                             @Value("${delivery.breaker.open.seconds}") long openSeconds) {
+        return new DeliverySettings(url, batchSize, maxConcurrent, maxAttempts, Duration.ofMillis(initialBackoff),
+                Duration.ofMillis(maxBackoff), Duration.ofMillis(timeout), failureThreshold,
+                Duration.ofSeconds(openSeconds));
+    }
+
+    /**
+     * Non-blocking client that keeps connections to the receiver open between batches.
+     */
+    @Bean
+    public HttpClient deliveryHttpClient(DeliverySettings settings) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(settings.requestTimeout())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public ContractOutbox contractOutbox(@Value("${delivery.outbox.directory}") Path directory,
+                                         LoanContractRepository repository) throws IOException {
+        return ContractOutbox.open(directory, repository);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ContractDispatcher contractDispatcher(ContractOutbox outbox, HttpClient deliveryHttpClient,
+                                                 ObjectMapper objectMapper, DeliverySettings settings) {
+        return new ContractDispatcher(outbox, deliveryHttpClient, objectMapper, settings);
+    }
+}
@@ -0,0 +1,23 @@
+package com.mybank.contractapproval.config;
+
+import com.mybank.contractapproval.journal.ContractJournal;
+import com.mybank.contractapproval.journal.DurabilityMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+@ConditionalOnProperty(name = "journal.enabled", havingValue = "true")
+public class JournalConfig {
+
+    @Bean(destroyMethod = "close")
+    public ContractJournal contractJournal(@Value("${journal.directory}") Path directory,
+                                           @Value("${journal.durability}") DurabilityMode durability)
+            throws IOException {
+        return ContractJournal.open(directory, durability);
+    }
+}
@@ -0,0 +1,19 @@
+package com.mybank.contractapproval.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Times every bean method annotated with {@code @Timed}, such as the repository operations
+ * published as {@code contracts.repository} with {@code class} and {@code method} tags.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -1,93 +1,148 @@
 package com.mybank.contractapproval.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mybank.contractapproval.cache.ContractETags;
+import com.mybank.contractapproval.cache.ContractResponseCache;
 import com.mybank.contractapproval.exceptions.ConflictException;
+import com.mybank.contractapproval.exceptions.InvalidDataException;
 import com.mybank.contractapproval.exceptions.NotFoundException;
+import com.mybank.contractapproval.model.BatchItemResult;
+import com.mybank.contractapproval.model.ContractPage;
+import com.mybank.contractapproval.model.DecisionVote;
 import com.mybank.contractapproval.model.LoanContractRequest;
-import com.mybank.contractapproval.model.enums.ApprovalStatus;
 import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
 import com.mybank.contractapproval.repository.LoanContractRepository;
+import com.mybank.contractapproval.service.ContractBatchService;
 import com.mybank.contractapproval.service.LoanApprovalService;
-import com.mybank.contractapproval.statistics.ContractStatisticsDTO;
+import com.mybank.contractapproval.statistics.ColumnSummary;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/contracts")
+@Profile("!reactive")
 @AllArgsConstructor
 public class LoanApprovalController {
 
     @Autowired
     private final LoanContractRepository repository;
     private final LoanApprovalService loanApprovalService;
+    private final ContractBatchService contractBatchService;
+    private final ContractResponseCache contractResponseCache;
+    private final ContractETags eTags;
+    private final ObjectMapper objectMapper;
 
-    @Cacheable(value = "data")
     @GetMapping("")
     @ResponseStatus(HttpStatus.OK)
     public List<LoanContractRequest> getAll() {
         return  loanApprovalService.findAll();
     }
 
-    @Cacheable(value = "data", key = "#customerId")
-    @GetMapping("/{customerId}")
+    /**
+     * Streams every contract as one JSON object per line, in customer ID order, straight to
+     * the response without building a list first. The generator's buffer is flushed when it
+     * fills and once at the end, not after every contract.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        var writer = objectMapper.writerFor(LoanContractRequest.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (var generator = objectMapper.getFactory().createGenerator(out);
+                 var contracts = repository.streamAllContracts()) {
+                generator.setRootValueSeparator(null);
+                var iterator = contracts.iterator();
+                while (iterator.hasNext()) {
+                    writer.writeValue(generator, iterator.next());
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/page")
     @ResponseStatus(HttpStatus.OK)
-    public LoanContractRequest getById(@PathVariable String customerId) {
-        return loanApprovalService.findById(customerId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
-                        "Customer '" + customerId + "' not found"));
+    public ContractPage getPage(@RequestParam(required = false) String after,
+                                @RequestParam(defaultValue = "100") int limit) throws InvalidDataException {
+        return loanApprovalService.findPage(after, limit);
+    }
+
+    @GetMapping("/{customerId}")
+    public ResponseEntity<byte[]> getById(
+            @PathVariable String customerId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return contractResponseCache.contract(customerId).toResponseEntity(acceptEncoding);
+    }
+
+    @GetMapping("/statistics/loans")
+    public ColumnSummary getLoanSummary(
+            @RequestParam(required = false) ContractStatus status,
+            @RequestParam(required = false) LoanType loanType,
+            @RequestParam(required = false) Managers approver) {
+        return loanApprovalService.summarizeLoans(status, loanType, approver);
     }
 
     @PostMapping("/create")
     @ResponseStatus(HttpStatus.CREATED)
     public void create(@Valid @RequestBody LoanContractRequest cRequest) throws ConflictException {
-        loanApprovalService.conflictException(cRequest);
-
-        var loanApprovalService = new LoanApprovalService();
-        var updatedContractRequest = loanApprovalService.updateStatus(cRequest,
-                ContractStatus.PENDING, ApprovalStatus.PENDING);
+        loanApprovalService.create(cRequest);
+    }
 
-        repository.save(updatedContractRequest);
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @ResponseStatus(HttpStatus.OK)
+    public List<BatchItemResult> createBatch(InputStream body) throws IOException {
+        return contractBatchService.create(body);
     }
 
+    /**
+     * Applies one approver's vote. With {@code If-Match} the vote is only applied to the
+     * contract version that tag was issued for, otherwise it answers 409. The response
+     * carries the ETag of the decided contract.
+     */
     @PutMapping("/decision")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void decision(@Valid @RequestBody LoanContractRequest updatedRequest)
-            throws NotFoundException {
-        loanApprovalService.notFoundException(updatedRequest);
+    public ResponseEntity<Void> decision(
+            @Valid @RequestBody LoanContractRequest updatedRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws NotFoundException, InvalidDataException, ConflictException {
+        var decided = loanApprovalService.decide(updatedRequest, eTags.expectedVersion(ifMatch));
+        return ResponseEntity.noContent().eTag(eTags.contract(decided.version())).build();
+    }
 
-        loanApprovalService.makeDecision(updatedRequest);
-        loanApprovalService.makeDecisionOnContract(loanApprovalService.populateMissingFields(updatedRequest));
+    @PutMapping("/decisions")
+    @ResponseStatus(HttpStatus.OK)
+    public List<BatchItemResult> decisions(@RequestBody List<DecisionVote> votes) {
+        return loanApprovalService.decideAll(votes);
     }
 
     @DeleteMapping("/{customerId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void delete (@PathVariable String customerId) throws NotFoundException {
-        loanApprovalService.notFoundException(customerId);
-
-        repository.deleteById(customerId);
+    public void delete (@PathVariable String customerId,
+                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws NotFoundException, ConflictException, InvalidDataException {
+        loanApprovalService.delete(customerId, eTags.expectedVersion(ifMatch));
     }
 
-    @Cacheable(value = "data")
     @GetMapping("/statistics")
-    public ResponseEntity<ContractStatisticsDTO> getContractStatistics(@RequestParam(defaultValue = "$" +
-            "{statistics.sent.contracts.minutes.default}") int minutes) {
-        var contractsInLastMinutes =
-                repository.findSentContracts(minutes);
-        var contracts = repository.findAllContracts();
-
-        return ResponseEntity.ok(new ContractStatisticsDTO(
-                LoanApprovalService.countContractsByStatus(contracts, ContractStatus.PENDING),
-                LoanApprovalService.countContractsByStatus(contracts, ContractStatus.SENT),
-                LoanApprovalService.countContractsByStatus(contractsInLastMinutes, ContractStatus.SENT),
-                repository.calculateSumOfLoanAmounts(), repository.calculateAverageLoanAmount(),
-                repository.findMaxLoanAmount(), repository.findMinLoanAmount(),
-                repository.calculateApproverStatistics()));
+    public ResponseEntity<byte[]> getContractStatistics(
+            @RequestParam(defaultValue = "$" + "{statistics.sent.contracts.minutes.default}") int minutes,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return contractResponseCache.statistics(minutes).toResponseEntity(acceptEncoding);
     }
 }
@@ -0,0 +1,166 @@
+package com.mybank.contractapproval.controller;
+
+import com.mybank.contractapproval.cache.ContractETags;
+import com.mybank.contractapproval.cache.ContractResponseCache;
+import com.mybank.contractapproval.model.BatchItemResult;
+import com.mybank.contractapproval.model.ContractPage;
+import com.mybank.contractapproval.model.DecisionVote;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+import com.mybank.contractapproval.repository.ReactiveLoanContractRepository;
+import com.mybank.contractapproval.service.ContractBatchService;
+import com.mybank.contractapproval.service.LoanApprovalService;
+import com.mybank.contractapproval.statistics.ColumnSummary;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.List;
+
+/**
+ * The {@code /api/contracts} API on WebFlux, active with the {@code reactive} profile in
+ * place of {@link LoanApprovalController}. Responses, status codes and headers are the same.
+ */
+@RestController
+@RequestMapping("/api/contracts")
+@Profile("reactive")
+@AllArgsConstructor
+public class ReactiveLoanApprovalController {
+
+    private static final int BATCH_PIPE_BYTES = 64 * 1024;
+
+    private final ReactiveLoanContractRepository repository;
+    private final LoanApprovalService loanApprovalService;
+    private final ContractBatchService contractBatchService;
+    private final ContractResponseCache contractResponseCache;
+    private final ContractETags eTags;
+
+    /**
+     * Streams every contract in customer ID order, as a JSON array or one object per line.
+     * Contracts are read as the client consumes them, so a slow client slows the read
+     * instead of making the server buffer the whole store.
+     */
+    @GetMapping(value = "", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<LoanContractRequest> getAll() {
+        return repository.streamAll();
+    }
+
+    @GetMapping("/page")
+    public Mono<ContractPage> getPage(@RequestParam(required = false) String after,
+                                      @RequestParam(defaultValue = "100") int limit) {
+        return Mono.fromCallable(() -> loanApprovalService.findPage(after, limit));
+    }
+
+    @GetMapping("/{customerId}")
+    public Mono<ResponseEntity<byte[]>> getById(
+            @PathVariable String customerId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return Mono.fromSupplier(() -> contractResponseCache.contract(customerId).toResponseEntity(acceptEncoding));
+    }
+
+    @GetMapping("/statistics/loans")
+    public Mono<ColumnSummary> getLoanSummary(
+            @RequestParam(required = false) ContractStatus status,
+            @RequestParam(required = false) LoanType loanType,
+            @RequestParam(required = false) Managers approver) {
+        return Mono.fromSupplier(() -> loanApprovalService.summarizeLoans(status, loanType, approver));
+    }
+
+    @PostMapping("/create")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Void> create(@Valid @RequestBody LoanContractRequest cRequest) {
+        return repository.write(() -> {
+            loanApprovalService.create(cRequest);
+            return null;
+        });
+    }
+
+    /**
+     * Feeds the request body to the batch service through a bounded pipe: the body is read
+     * from the network only as fast as the service parses it. When the client cancels, the
+     * body subscription is disposed and the pipe closed, so the reading thread sees the end
+     * of the body instead of waiting for bytes that will never come.
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<List<BatchItemResult>> createBatch(@RequestBody Flux<DataBuffer> body) {
+        return Mono.defer(() -> {
+            var in = new PipedInputStream(BATCH_PIPE_BYTES);
+            PipedOutputStream out;
+            try {
+                out = new PipedOutputStream(in);
+            } catch (IOException e) {
+                return Mono.error(e);
+            }
+            Disposable writing = DataBufferUtils.write(body.publishOn(Schedulers.boundedElastic()), out)
+                    .doFinally(signal -> closeQuietly(out))
+                    .subscribe(DataBufferUtils.releaseConsumer(), error -> closeQuietly(out));
+            return Mono.fromCallable(() -> {
+                        try (in) {
+                            return contractBatchService.create(in);
+                        }
+                    })
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .doOnCancel(() -> {
+                        writing.dispose();
+                        closeQuietly(out);
+                    })
+                    .doFinally(signal -> writing.dispose());
+        });
+    }
+
+    @PutMapping("/decision")
+    public Mono<ResponseEntity<Void>> decision(
+            @Valid @RequestBody LoanContractRequest updatedRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return repository.write(() -> {
+            var decided = loanApprovalService.decide(updatedRequest, eTags.expectedVersion(ifMatch));
+            return ResponseEntity.noContent().eTag(eTags.contract(decided.version())).build();
+        });
+    }
+
+    @PutMapping("/decisions")
+    public Mono<List<BatchItemResult>> decisions(@RequestBody List<DecisionVote> votes) {
+        return repository.write(() -> loanApprovalService.decideAll(votes));
+    }
+
+    @DeleteMapping("/{customerId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> delete(@PathVariable String customerId,
+                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return repository.write(() -> {
+            loanApprovalService.delete(customerId, eTags.expectedVersion(ifMatch));
+            return null;
+        });
+    }
+
+    @GetMapping("/statistics")
+    public Mono<ResponseEntity<byte[]>> getContractStatistics(
+            @RequestParam(defaultValue = "$" + "{statistics.sent.contracts.minutes.default}") int minutes,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return Mono.fromSupplier(() -> contractResponseCache.statistics(minutes).toResponseEntity(acceptEncoding));
+    }
+
+    private static void closeQuietly(PipedOutputStream out) {
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // the batch service already stopped reading
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.mybank.contractapproval.delivery;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers outbox entries to the customer endpoint in batches, off the request path.
+ *
+ * <p>A single dispatcher thread takes batches from the outbox while the circuit breaker
+ * and the concurrency limit allow, and sends each with the non-blocking {@link HttpClient},
+ * which keeps a pool of open connections. Completions come back to the same thread, so
+ * outcomes are written one batch at a time.
+ *
+ * <p>A 2xx answer delivers the batch. Any other 4xx except 408 and 429 means the receiver
+ * will never accept it, so the batch is recorded as rejected. Everything else is retried
+ * with exponential backoff and jitter; once the attempts are used up or the breaker opens,
+ * the batch goes back to the outbox and waits for the breaker to let requests through.
+ */
+@Slf4j
+public class ContractDispatcher {
+
+    private static final long POLL_INTERVAL_MILLIS = 500;
+
+    private final ContractOutbox outbox;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final DeliverySettings settings;
+    private final CircuitBreaker breaker;
+    private final Semaphore inFlight;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+
+    public ContractDispatcher(ContractOutbox outbox, HttpClient client, ObjectMapper objectMapper,
+                              DeliverySettings settings) {
+        this.outbox = outbox;
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.settings = settings;
+        this.breaker = new CircuitBreaker(settings.failureThreshold(), settings.openDuration());
+        this.inFlight = new Semaphore(settings.maxConcurrent());
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "contract-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        outbox.onEnqueue(this::wakeUp);
+        executor.scheduleWithFixedDelay(this::wakeUp, 0, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops taking new batches and waits up to {@code timeout} for requests in flight.
+     * Undelivered entries stay SENT without an outcome and are queued again on startup.
+     */
+    public void stop(Duration timeout) throws InterruptedException {
+        outbox.onEnqueue(() -> { });
+        executor.shutdown();
+        executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() throws InterruptedException {
+        stop(Duration.ofSeconds(5));
+    }
+
+    public long delivered() {
+        return delivered.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long failedAttempts() {
+        return failedAttempts.sum();
+    }
+
+    public CircuitBreaker.State breakerState() {
+        return breaker.state();
+    }
+
+    private void wakeUp() {
+        if (drainQueued.compareAndSet(false, true) && !executor.isShutdown()) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Only this thread takes entries from the outbox, so a non-empty outbox always yields
+     * a non-empty batch.
+     */
+    private void drain() {
+        drainQueued.set(false);
+        while (!outbox.isEmpty() && inFlight.tryAcquire()) {
+            if (!breaker.tryAcquire()) {
+                inFlight.release();
+                return;
+            }
+            send(outbox.poll(settings.batchSize()), 1);
+        }
+    }
+
+    /**
+     * Sends one attempt. Every way out of here settles the breaker permit: the completion
+     * reports the receiver's answer, a request that fails before it is sent counts as a
+     * failed attempt, and a batch that cannot be encoded gives the permit back, since it
+     * says nothing about the receiver.
+     */
+    private void send(List<OutboxEntry> batch, int attempt) {
+        boolean settled = false;
+        try {
+            var request = HttpRequest.newBuilder(settings.url())
+                    .timeout(settings.requestTimeout())
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(encode(batch)))
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenCompleteAsync((response, error) -> completed(batch, attempt, response, error), executor);
+            settled = true;
+        } catch (JsonProcessingException e) {
+            log.error("Cannot encode {} contracts for delivery", batch.size(), e);
+            breaker.release();
+            settled = true;
+            finish(batch, false);
+        } catch (RuntimeException e) {
+            settled = true;
+            completed(batch, attempt, null, e);
+        } finally {
+            if (!settled) {
+                breaker.release();
+            }
+        }
+    }
+
+    private void completed(List<OutboxEntry> batch, int attempt, HttpResponse<Void> response, Throwable error) {
+        int status = response == null ? 0 : response.statusCode();
+        if (status >= 200 && status < 300) {
+            breaker.onSuccess();
+            finish(batch, true);
+            return;
+        }
+        if (status >= 400 && status < 500 && status != 408 && status != 429) {
+            breaker.onSuccess();
+            log.error("Receiver rejected {} contracts with status {}", batch.size(), status);
+            finish(batch, false);
+            return;
+        }
+
+        failedAttempts.increment();
+        breaker.onFailure();
+        if (attempt < settings.maxAttempts() && breaker.state() != CircuitBreaker.State.OPEN) {
+            long backoff = backoffMillis(attempt);
+            log.warn("Delivery attempt {} of {} contracts failed ({}), retrying in {} ms", attempt, batch.size(),
+                    error == null ? "status " + status : error.toString(), backoff);
+            executor.schedule(() -> retry(batch, attempt + 1), backoff, TimeUnit.MILLISECONDS);
+        } else {
+            log.warn("Delivery of {} contracts failed after {} attempts, breaker {}", batch.size(), attempt,
+                    breaker.state());
+            outbox.requeue(batch);
+            inFlight.release();
+        }
+    }
+
+    /**
+     * Sends a retry only if the breaker still lets requests through. It may have opened
+     * during the backoff, or be half-open with its single trial already out; the batch
+     * then goes back to the outbox.
+     */
+    private void retry(List<OutboxEntry> batch, int attempt) {
+        if (!breaker.tryAcquire()) {
+            log.warn("Breaker {}, putting {} contracts back instead of retrying", breaker.state(), batch.size());
+            outbox.requeue(batch);
+            inFlight.release();
+            return;
+        }
+        send(batch, attempt);
+    }
+
+    private void finish(List<OutboxEntry> batch, boolean accepted) {
+        try {
+            if (accepted) {
+                outbox.delivered(batch);
+                delivered.add(batch.size());
+            } else {
+                outbox.rejected(batch);
+                rejected.add(batch.size());
+            }
+        } catch (IOException e) {
+            log.error("Cannot record the outcome of {} contracts; they are delivered again after a restart",
+                    batch.size(), e);
+        } finally {
+            inFlight.release();
+            wakeUp();
+        }
+    }
+
+    private long backoffMillis(int attempt) {
+        long exponential = settings.initialBackoff().toMillis() << Math.min(attempt - 1, 20);
+        long capped = Math.min(exponential, settings.maxBackoff().toMillis());
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    private byte[] encode(List<OutboxEntry> batch) throws JsonProcessingException {
+        var contracts = new LoanContractRequest[batch.size()];
+        for (int i = 0; i < contracts.length; i++) {
+            contracts[i] = batch.get(i).contract();
+        }
+        return objectMapper.writeValueAsBytes(contracts);
+    }
+}
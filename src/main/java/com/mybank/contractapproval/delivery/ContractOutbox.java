@@ -0,0 +1,203 @@
+package com.mybank.contractapproval.delivery;
+
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.repository.ContractChangeListener;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Contracts that reached SENT and still have to be delivered to their customers.
+ *
+ * <p>The outbox is as durable as the repository: pending entries are not written anywhere
+ * of their own, because every SENT contract already is. Only the outcome of a delivery is
+ * appended to {@code delivered.log}. On startup every stored SENT contract without an
+ * outcome is pending again, so a contract is delivered at least once, and twice only if
+ * the process stops between a delivery and the write of its outcome.
+ *
+ * <p>Contracts are queued from the repository's change notification when they move into
+ * SENT, which only adds them to an in-memory queue. The dispatcher is woken once the write
+ * is complete, outside the repository's per-customer lock.
+ */
+@Slf4j
+public class ContractOutbox implements ContractChangeListener, Closeable {
+
+    static final String LOG_FILE_NAME = "delivered.log";
+
+    private static final String DELIVERED = "D";
+    private static final String REJECTED = "R";
+
+    private final Queue<OutboxEntry> pending = new ConcurrentLinkedQueue<>();
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean enqueued = new AtomicBoolean();
+    private volatile Runnable onEnqueue = () -> { };
+    private FileChannel outcomes;
+
+    private ContractOutbox() {
+    }
+
+    /**
+     * Opens the outbox in {@code directory}, queues every SENT contract in the repository
+     * that has no recorded outcome and follows the repository for new ones. Outcomes of
+     * contracts that are no longer SENT are dropped from the log.
+     */
+    public static ContractOutbox open(Path directory, LoanContractRepository repository) throws IOException {
+        Files.createDirectories(directory);
+        var file = directory.resolve(LOG_FILE_NAME);
+        var done = readOutcomes(file);
+
+        var outbox = new ContractOutbox();
+        repository.addListener(outbox);
+
+        var kept = new ArrayList<String>();
+        for (LoanContractRequest contract : repository.findByStatus(ContractStatus.SENT)) {
+            var outcome = done.get(OutboxEntry.key(contract));
+            if (outcome != null) {
+                kept.add(outcome);
+            } else {
+                outbox.enqueue(contract);
+            }
+        }
+        compact(file, kept);
+        outbox.outcomes = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        log.info("Outbox has {} contracts to deliver.", outbox.size());
+        return outbox;
+    }
+
+    /**
+     * Runs {@code onEnqueue} after a repository write that queued contracts, once the
+     * repository has released the customer's lock.
+     */
+    public void onEnqueue(Runnable onEnqueue) {
+        this.onEnqueue = onEnqueue;
+    }
+
+    @Override
+    public void changed(LoanContractRequest previous, LoanContractRequest current) {
+        if (current != null && current.loanContractStatus() == ContractStatus.SENT
+                && (previous == null || previous.loanContractStatus() != ContractStatus.SENT)) {
+            enqueue(current);
+        }
+    }
+
+    @Override
+    public void committed() {
+        if (enqueued.get() && enqueued.getAndSet(false)) {
+            onEnqueue.run();
+        }
+    }
+
+    /**
+     * Takes up to {@code max} entries off the queue, oldest first.
+     */
+    public List<OutboxEntry> poll(int max) {
+        List<OutboxEntry> batch = new ArrayList<>(Math.min(max, pending.size()));
+        for (OutboxEntry entry; batch.size() < max && (entry = pending.poll()) != null; ) {
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    /**
+     * Puts entries taken with {@link #poll} back, to be tried again later.
+     */
+    public void requeue(List<OutboxEntry> batch) {
+        pending.addAll(batch);
+    }
+
+    /**
+     * Records that the entries reached their customers. Returns once the record is on disk.
+     */
+    public void delivered(List<OutboxEntry> batch) throws IOException {
+        complete(batch, DELIVERED);
+    }
+
+    /**
+     * Records that the receiver refused the entries, so they are not offered again.
+     */
+    public void rejected(List<OutboxEntry> batch) throws IOException {
+        complete(batch, REJECTED);
+    }
+
+    /**
+     * Whether no entry is waiting to be taken.
+     */
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * Number of contracts waiting or being delivered.
+     */
+    public int size() {
+        return pendingKeys.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        outcomes.close();
+    }
+
+    private void enqueue(LoanContractRequest contract) {
+        if (pendingKeys.add(OutboxEntry.key(contract))) {
+            pending.add(new OutboxEntry(contract));
+            enqueued.set(true);
+        }
+    }
+
+    private void complete(List<OutboxEntry> batch, String outcome) throws IOException {
+        var lines = new StringBuilder();
+        for (OutboxEntry entry : batch) {
+            lines.append(outcome).append(' ').append(entry.key()).append('\n');
+        }
+        var buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            outcomes.write(buffer);
+        }
+        outcomes.force(false);
+        for (OutboxEntry entry : batch) {
+            pendingKeys.remove(entry.key());
+        }
+    }
+
+    /**
+     * Reads the recorded outcome lines by contract key. A torn last line left by a crash
+     * does not parse into the key of a stored contract and is ignored.
+     */
+    private static Map<String, String> readOutcomes(Path file) throws IOException {
+        Map<String, String> done = new HashMap<>();
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.length() > 2 && line.charAt(1) == ' ') {
+                    done.put(line.substring(2), line);
+                }
+            }
+        }
+        return done;
+    }
+
+    private static void compact(Path file, List<String> kept) throws IOException {
+        var compacted = file.resolveSibling(LOG_FILE_NAME + ".tmp");
+        Files.write(compacted, kept, StandardCharsets.UTF_8);
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
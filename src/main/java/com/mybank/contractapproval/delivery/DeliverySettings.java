@@ -0,0 +1,34 @@
+package com.mybank.contractapproval.delivery;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * @param url              endpoint batches of sent contracts are POSTed to, as a JSON array
+ * @param batchSize        most contracts per request
+ * @param maxConcurrent    most requests in flight at once, retries included
+ * @param maxAttempts      attempts per batch before it goes back to the outbox
+ * @param initialBackoff   wait before the first retry, doubled for each further one
+ * @param maxBackoff       longest wait between retries
+ * @param requestTimeout   time a request may take before it counts as failed
+ * @param failureThreshold consecutive failures that open the circuit breaker
+ * @param openDuration     time the open breaker rejects requests before a trial
+ */
+public record DeliverySettings(
+        URI url,
+        int batchSize,
+        int maxConcurrent,
+        int maxAttempts,
+        Duration initialBackoff,
+        Duration maxBackoff,
+        Duration requestTimeout,
+        int failureThreshold,
+        Duration openDuration
+) {
+
+    public DeliverySettings {
+        if (batchSize <= 0 || maxConcurrent <= 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException("Batch size, concurrency and attempts must be positive");
+        }
+    }
+}
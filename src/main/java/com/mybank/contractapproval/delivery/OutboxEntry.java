@@ -0,0 +1,18 @@
+package com.mybank.contractapproval.delivery;
+
+import com.mybank.contractapproval.model.LoanContractRequest;
+
+/**
+ * A contract waiting to be delivered to its customer. A contract sent again after being
+ * re-created gets a new {@code sentToCustomerDate} and so a new entry.
+ */
+public record OutboxEntry(LoanContractRequest contract) {
+
+    public String key() {
+        return key(contract);
+    }
+
+    static String key(LoanContractRequest contract) {
+        return contract.customerId() + " " + contract.sentToCustomerDate();
+    }
+}
@@ -0,0 +1,109 @@
+package com.mybank.contractapproval.events;
+
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.Managers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One immutable fact about a contract. Every repository change is recorded as the events
+ * that explain it: an approver's vote and the status it led to are separate events instead
+ * of being folded into a replacement contract.
+ */
+public sealed interface ContractEvent {
+
+    String customerId();
+
+    record Created(LoanContractRequest contract) implements ContractEvent {
+
+        @Override
+        public String customerId() {
+            return contract.customerId();
+        }
+    }
+
+    record ApproverVoted(String customerId, Managers approver, ApprovalStatus previous, ApprovalStatus status)
+            implements ContractEvent {
+    }
+
+    record StatusChanged(String customerId, ContractStatus previous, ContractStatus status, String sentToCustomerDate)
+            implements ContractEvent {
+    }
+
+    /**
+     * A change that is not a vote or a status change, such as a new loan amount.
+     */
+    record Revised(LoanContractRequest previous, LoanContractRequest contract) implements ContractEvent {
+
+        @Override
+        public String customerId() {
+            return contract.customerId();
+        }
+    }
+
+    /**
+     * @param contract the contract as it was when deleted
+     */
+    record Deleted(LoanContractRequest contract) implements ContractEvent {
+
+        @Override
+        public String customerId() {
+            return contract.customerId();
+        }
+    }
+
+    /**
+     * Returns the events that turn {@code previous} into {@code current}; either may be
+     * {@code null} for a create or a delete. Unchanged contracts produce no events.
+     */
+    static List<ContractEvent> between(LoanContractRequest previous, LoanContractRequest current) {
+        if (previous == null) {
+            return List.of(new Created(current));
+        }
+        if (current == null) {
+            return List.of(new Deleted(previous));
+        }
+        if (!sameTerms(previous, current)) {
+            return List.of(new Revised(previous, current));
+        }
+
+        List<ContractEvent> events = new ArrayList<>(2);
+        for (int i = 0; i < current.approvers().size(); i++) {
+            Approver before = previous.approvers().get(i);
+            Approver after = current.approvers().get(i);
+            if (before.status() != after.status()) {
+                events.add(new ApproverVoted(current.customerId(), after.username(), before.status(), after.status()));
+            }
+        }
+        if (previous.loanContractStatus() != current.loanContractStatus()
+                || !Objects.equals(previous.sentToCustomerDate(), current.sentToCustomerDate())) {
+            events.add(new StatusChanged(current.customerId(), previous.loanContractStatus(),
+                    current.loanContractStatus(), current.sentToCustomerDate()));
+        }
+        return events;
+    }
+
+    /**
+     * Whether both contracts have the same terms and the same approvers in the same order,
+     * so they can only differ in votes and status.
+     */
+    private static boolean sameTerms(LoanContractRequest previous, LoanContractRequest current) {
+        if (!Objects.equals(previous.loanAmount(), current.loanAmount())
+                || previous.loanType() != current.loanType()
+                || !Objects.equals(previous.createdDate(), current.createdDate())
+                || previous.approvers().size() != current.approvers().size()) {
+            return false;
+        }
+        for (int i = 0; i < current.approvers().size(); i++) {
+            if (previous.approvers().get(i).username() != current.approvers().get(i).username()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
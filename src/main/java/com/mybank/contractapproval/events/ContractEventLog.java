@@ -0,0 +1,52 @@
+package com.mybank.contractapproval.events;
+
+import com.mybank.contractapproval.model.LoanContractRequest;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records every contract change as events and applies them to the registered projections.
+ * The events themselves are not kept, so a projection only sees the changes recorded after
+ * it was registered; the repository registers its projections before replaying the journal.
+ */
+public class ContractEventLog {
+
+    private final List<ContractProjection> projections = new CopyOnWriteArrayList<>();
+
+    public ContractEventLog(ContractProjection... projections) {
+        this.projections.addAll(List.of(projections));
+    }
+
+    /**
+     * Keeps {@code projection} up to date with every event recorded from now on.
+     */
+    public void register(ContractProjection projection) {
+        projections.add(projection);
+    }
+
+    /**
+     * Tells the registered projections that a live write recorded here is complete.
+     */
+    public void committed() {
+        for (ContractProjection projection : projections) {
+            projection.committed();
+        }
+    }
+
+    /**
+     * Records the events that turn {@code previous} into {@code current}. A customer's
+     * changes must be recorded one at a time, in the order they were made.
+     */
+    public void record(LoanContractRequest previous, LoanContractRequest current) {
+        var events = ContractEvent.between(previous, current);
+        if (events.isEmpty()) {
+            return;
+        }
+        for (ContractProjection projection : projections) {
+            for (ContractEvent event : events) {
+                projection.apply(event);
+            }
+        }
+    }
+}
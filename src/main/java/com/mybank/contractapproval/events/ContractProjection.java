@@ -0,0 +1,21 @@
+package com.mybank.contractapproval.events;
+
+/**
+ * A read model built by applying contract events as they are recorded. Events of one
+ * customer arrive in order, one at a time; implementations are read concurrently, so they
+ * must be thread-safe, and must not depend on the order across customers. Like
+ * {@link com.mybank.contractapproval.repository.ContractChangeListener}s they hold up the
+ * repository's later changes and must be quick.
+ */
+@FunctionalInterface
+public interface ContractProjection {
+
+    void apply(ContractEvent event);
+
+    /**
+     * Called after the events of live writes were applied, so work deferred from
+     * {@link #apply} can run there. Called at least once after every such write.
+     */
+    default void committed() {
+    }
+}
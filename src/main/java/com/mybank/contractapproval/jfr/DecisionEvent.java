@@ -0,0 +1,46 @@
+package com.mybank.contractapproval.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One approver vote, or the votes a batch holds for one contract, applied by
+ * {@code LoanApprovalService}, from reading the contract to storing the result.
+ */
+@Name("com.mybank.contractapproval.Decision")
+@Label("Decision")
+@Category({"Loan Approval", "Decisions"})
+@Description("An approver vote applied to a contract")
+@StackTrace(false)
+public class DecisionEvent extends Event {
+
+    @Label("Stage")
+    @Description("Service method that applied the vote")
+    public String stage;
+
+    @Label("Customer ID")
+    public String customerId;
+
+    @Label("Approver")
+    @Description("Voting approver, unset when a batch applied several votes")
+    public String approver;
+
+    @Label("Loan Type")
+    public String loanType;
+
+    @Label("Contract Status")
+    @Description("Status of the contract after the vote")
+    public String contractStatus;
+
+    @Label("Approvers Scanned")
+    @Description("Approver entries compared to find the voting approver, zero for batches")
+    public int approversScanned;
+
+    @Label("Retries")
+    @Description("Times the vote was rebuilt after a concurrent change to the contract")
+    public int retries;
+}
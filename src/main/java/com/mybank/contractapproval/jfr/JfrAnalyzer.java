@@ -0,0 +1,142 @@
+package com.mybank.contractapproval.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summarizes the loan approval events of a {@code .jfr} recording into latency percentiles
+ * per stage, such as {@code Decision/decide} or {@code RepositoryWrite/replace}. For decision
+ * stages it also reports the share of time spent in repository writes made by the same
+ * thread during the decision.
+ *
+ * <p>Record with {@code -XX:StartFlightRecording:filename=approval.jfr} and run with
+ * {@code java -cp <classpath> com.mybank.contractapproval.jfr.JfrAnalyzer approval.jfr}.
+ */
+public final class JfrAnalyzer {
+
+    static final String EVENT_PREFIX = "com.mybank.contractapproval.";
+
+    private JfrAnalyzer() {
+    }
+
+    /**
+     * Latencies of one stage. {@code inRepository} is the time spent in nested repository
+     * writes and is zero for stages that make none.
+     */
+    public record StageSummary(String stage, int count, Duration p50, Duration p99, Duration max,
+                               Duration total, Duration inRepository) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JfrAnalyzer <recording.jfr>");
+            System.exit(2);
+        }
+        print(summarize(Path.of(args[0])));
+    }
+
+    public static List<StageSummary> summarize(Path recording) throws IOException {
+        Map<String, List<RecordedEvent>> stages = new TreeMap<>();
+        Map<Long, List<RecordedEvent>> writesByThread = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+            var type = event.getEventType().getName();
+            if (!type.startsWith(EVENT_PREFIX)) {
+                continue;
+            }
+            stages.computeIfAbsent(stage(event), stage -> new ArrayList<>()).add(event);
+            if (event.getThread() != null && type.equals(EVENT_PREFIX + "RepositoryWrite")) {
+                writesByThread.computeIfAbsent(event.getThread().getJavaThreadId(), thread -> new ArrayList<>()).add(event);
+            }
+        }
+        writesByThread.values().forEach(writes -> writes.sort(Comparator.comparing(RecordedEvent::getStartTime)));
+
+        List<StageSummary> summaries = new ArrayList<>();
+        stages.forEach((stage, events) -> summaries.add(summarize(stage, events, writesByThread)));
+        return summaries;
+    }
+
+    private static StageSummary summarize(String stage, List<RecordedEvent> events,
+                                          Map<Long, List<RecordedEvent>> writesByThread) {
+        long[] nanos = new long[events.size()];
+        long total = 0;
+        long inRepository = 0;
+        for (int i = 0; i < nanos.length; i++) {
+            var event = events.get(i);
+            nanos[i] = event.getDuration().toNanos();
+            total += nanos[i];
+            if (event.getEventType().getName().equals(EVENT_PREFIX + "Decision") && event.getThread() != null) {
+                inRepository += nestedNanos(event, writesByThread.getOrDefault(event.getThread().getJavaThreadId(), List.of()));
+            }
+        }
+        Arrays.sort(nanos);
+        return new StageSummary(stage, nanos.length, Duration.ofNanos(percentile(nanos, 50)),
+                Duration.ofNanos(percentile(nanos, 99)), Duration.ofNanos(nanos[nanos.length - 1]),
+                Duration.ofNanos(total), Duration.ofNanos(inRepository));
+    }
+
+    private static long nestedNanos(RecordedEvent outer, List<RecordedEvent> writes) {
+        Instant start = outer.getStartTime();
+        Instant end = outer.getEndTime();
+        int low = 0;
+        int high = writes.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (writes.get(middle).getStartTime().isBefore(start)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        long nested = 0;
+        for (int i = low; i < writes.size() && !writes.get(i).getStartTime().isAfter(end); i++) {
+            if (!writes.get(i).getEndTime().isAfter(end)) {
+                nested += writes.get(i).getDuration().toNanos();
+            }
+        }
+        return nested;
+    }
+
+    private static String stage(RecordedEvent event) {
+        var name = event.getEventType().getName().substring(EVENT_PREFIX.length());
+        for (String field : new String[]{"stage", "operation"}) {
+            if (event.hasField(field) && event.getString(field) != null) {
+                return name + "/" + event.getString(field);
+            }
+        }
+        return name;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static void print(List<StageSummary> summaries) {
+        System.out.printf("%-36s %9s %10s %10s %10s %12s %8s%n",
+                "stage", "count", "p50 ms", "p99 ms", "max ms", "total ms", "repo %");
+        for (StageSummary summary : summaries) {
+            System.out.printf(Locale.ROOT, "%-36s %9d %10.3f %10.3f %10.3f %12.1f %8s%n",
+                    summary.stage(), summary.count(), millis(summary.p50()), millis(summary.p99()),
+                    millis(summary.max()), millis(summary.total()),
+                    summary.inRepository().isZero() ? "-"
+                            : String.format(Locale.ROOT, "%.1f", 100.0 * summary.inRepository().toNanos() / summary.total().toNanos()));
+        }
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+}
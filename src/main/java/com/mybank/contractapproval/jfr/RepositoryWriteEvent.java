@@ -0,0 +1,37 @@
+package com.mybank.contractapproval.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One contract replacement in {@code LoanContractRepository}, including index and statistics
+ * maintenance and waiting for the journal.
+ */
+@Name("com.mybank.contractapproval.RepositoryWrite")
+@Label("Repository Write")
+@Category({"Loan Approval", "Repository"})
+@Description("A contract replaced in the repository")
+@StackTrace(false)
+public class RepositoryWriteEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Customer ID")
+    public String customerId;
+
+    @Label("Loan Type")
+    public String loanType;
+
+    @Label("Index Entries")
+    @Description("Index entries removed and added for the contract")
+    public int indexEntries;
+
+    @Label("Applied")
+    @Description("Whether the contract was replaced; false when a version check failed")
+    public boolean applied;
+}
@@ -0,0 +1,31 @@
+package com.mybank.contractapproval.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One computation of the contract statistics, which is what a statistics cache miss costs.
+ */
+@Name("com.mybank.contractapproval.Statistics")
+@Label("Statistics")
+@Category({"Loan Approval", "Statistics"})
+@Description("Contract statistics computed from the repository aggregates")
+@StackTrace(false)
+public class StatisticsEvent extends Event {
+
+    @Label("Minutes")
+    @Description("Period the sent contracts were counted over")
+    public int minutes;
+
+    @Label("Contracts")
+    @Description("Contracts stored when the statistics were computed")
+    public long contracts;
+
+    @Label("Approvers")
+    @Description("Approver statistics entries built")
+    public int approvers;
+}
@@ -0,0 +1,111 @@
+package com.mybank.contractapproval.journal;
+
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of a {@link LoanContractRequest}: enums as ordinals, dates as epoch
+ * second plus nanos, strings as length-prefixed UTF-8. Every field may be {@code null}.
+ */
+public final class ContractCodec {
+
+    private static final Managers[] MANAGERS = Managers.values();
+    private static final ApprovalStatus[] APPROVAL_STATUSES = ApprovalStatus.values();
+    private static final ContractStatus[] CONTRACT_STATUSES = ContractStatus.values();
+    private static final LoanType[] LOAN_TYPES = LoanType.values();
+
+    private ContractCodec() {
+    }
+
+    public static void write(DataOutput out, LoanContractRequest contract) throws IOException {
+        writeString(out, contract.customerId());
+        out.writeBoolean(contract.loanAmount() != null);
+        if (contract.loanAmount() != null) {
+            out.writeDouble(contract.loanAmount());
+        }
+        if (contract.approvers() == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(contract.approvers().size());
+            for (Approver approver : contract.approvers()) {
+                writeEnum(out, approver.username());
+                writeEnum(out, approver.status());
+            }
+        }
+        writeEnum(out, contract.loanType());
+        writeEnum(out, contract.loanContractStatus());
+        out.writeBoolean(contract.createdDate() != null);
+        if (contract.createdDate() != null) {
+            out.writeLong(contract.createdDate().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(contract.createdDate().getNano());
+        }
+        writeString(out, contract.sentToCustomerDate());
+    }
+
+    public static LoanContractRequest read(ByteBuffer in) {
+        String customerId = readString(in);
+        Double loanAmount = in.get() != 0 ? in.getDouble() : null;
+        int approverCount = in.getInt();
+        List<Approver> approvers = null;
+        if (approverCount >= 0) {
+            approvers = new ArrayList<>(approverCount);
+            for (int i = 0; i < approverCount; i++) {
+                approvers.add(new Approver(readEnum(in, MANAGERS), readEnum(in, APPROVAL_STATUSES)));
+            }
+            approvers = List.copyOf(approvers);
+        }
+        LoanType loanType = readEnum(in, LOAN_TYPES);
+        ContractStatus status = readEnum(in, CONTRACT_STATUSES);
+        LocalDateTime createdDate = null;
+        if (in.get() != 0) {
+            long epochSecond = in.getLong();
+            createdDate = LocalDateTime.ofEpochSecond(epochSecond, in.getInt(), ZoneOffset.UTC);
+        }
+        String sentToCustomerDate = readString(in);
+
+        return new LoanContractRequest(customerId, loanAmount, approvers, loanType, status, createdDate,
+                sentToCustomerDate);
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeEnum(DataOutput out, Enum<?> value) throws IOException {
+        out.writeByte(value == null ? -1 : value.ordinal());
+    }
+
+    private static <E extends Enum<E>> E readEnum(ByteBuffer in, E[] values) {
+        byte ordinal = in.get();
+        return ordinal < 0 ? null : values[ordinal];
+    }
+}
@@ -0,0 +1,477 @@
+package com.mybank.contractapproval.journal;
+
+import com.mybank.contractapproval.model.LoanContractRequest;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of repository mutations, compacted by snapshots.
+ *
+ * <p>Each record is framed as {@code [int length][int crc32][payload]}. Callers queue
+ * records with {@link #append} and a single writer thread moves them to the file, so the
+ * order of records matches the order of {@code append} calls. How often the writer forces
+ * the file, and whether callers wait for it, depends on the {@link DurabilityMode}.
+ *
+ * <p>Records go to numbered segment files. {@link #checkpoint} rolls to a new segment
+ * {@code G}, writes a snapshot of the current state as generation {@code G} and deletes
+ * what the snapshot makes redundant. A mutation appended just before the roll may still
+ * be in flight while the snapshot reads the state, so segment {@code G - 1} is kept and
+ * replayed on top of the snapshot; replaying a record twice is harmless because records
+ * carry whole contracts.
+ *
+ * <p>{@link #replay} must run once before the first append. It loads the newest snapshot,
+ * replays the remaining segments and cuts off any torn tail left by a crash.
+ *
+ * <p>Replay stops at the first damaged frame, so a failed write must not leave one behind
+ * later records. The writer cuts the segment back to the end of the last intact frame
+ * before failing the batch; if that is impossible the journal fails for good and refuses
+ * every later append.
+ */
+@Slf4j
+public class ContractJournal implements Closeable {
+
+    private static final Pattern SEGMENT = Pattern.compile("contracts-(\\d{16})\\.journal");
+    private static final Pattern SNAPSHOT = Pattern.compile("contracts-(\\d{16})\\.snapshot");
+
+    private static final int HEADER_BYTES = 8;
+    private static final long ASYNC_FORCE_INTERVAL_MILLIS = 100;
+    private static final CompletableFuture<Void> QUEUED = CompletableFuture.completedFuture(null);
+
+    private final Path directory;
+    private final DurabilityMode mode;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Records waiting for the writer. Appends run inside the repository's per-customer
+     * compute, which holds a map bin monitor, so they must never block: a virtual thread
+     * blocking there would pin its carrier thread. Appenders add without locking and unpark
+     * the writer.
+     */
+    private final Queue<PendingWrite> queue = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+    private final UnaryOperator<FileChannel> segmentChannels;
+    private final Thread writer;
+    private FileChannel channel;
+    private long generation;
+    private volatile boolean accepting;
+    private volatile boolean closed;
+
+    /**
+     * Why the journal stopped accepting appends after a write it could not undo, or
+     * {@code null} while it is healthy.
+     */
+    private volatile IOException failure;
+
+    /**
+     * Set while the writer is about to park, so appenders only pay for an unpark when the
+     * writer may be sleeping. The writer sets it before its last look at the queue and an
+     * appender reads it after adding, so one of them always sees the other.
+     */
+    private volatile boolean writerParked;
+    private boolean dirty;
+    private long lastForceNanos = System.nanoTime();
+
+    /**
+     * A framed record, or a request to roll to segment {@code rollTo} when {@code frame} is
+     * {@code null}.
+     */
+    private record PendingWrite(ByteBuffer frame, long rollTo, CompletableFuture<Void> written) {
+    }
+
+    private ContractJournal(Path directory, DurabilityMode mode, UnaryOperator<FileChannel> segmentChannels) {
+        this.directory = directory;
+        this.mode = mode;
+        this.segmentChannels = segmentChannels;
+        this.writer = new Thread(this::writeLoop, "contract-journal-writer");
+        this.writer.setDaemon(true);
+    }
+
+    public static ContractJournal open(Path directory, DurabilityMode mode) throws IOException {
+        return open(directory, mode, UnaryOperator.identity());
+    }
+
+    /**
+     * Opens a journal whose segment channels are passed through {@code segmentChannels}, so
+     * tests can inject write failures.
+     */
+    static ContractJournal open(Path directory, DurabilityMode mode, UnaryOperator<FileChannel> segmentChannels)
+            throws IOException {
+        Files.createDirectories(directory);
+        return new ContractJournal(directory, mode, segmentChannels);
+    }
+
+    public DurabilityMode mode() {
+        return mode;
+    }
+
+    /**
+     * Feeds the newest snapshot and then every intact journal record to {@code consumer}
+     * in write order, and starts a fresh segment for appends.
+     */
+    public void replay(Consumer<JournalRecord> consumer) {
+        try {
+            var snapshot = latest(SNAPSHOT);
+            long firstSegment = 0;
+            if (snapshot.isPresent()) {
+                long restored = ContractSnapshot.read(snapshotPath(directory, snapshot.getAsLong()),
+                        contract -> consumer.accept(JournalRecord.save(contract)));
+                log.info("Loaded {} contracts from snapshot {}.", restored, snapshot.getAsLong());
+                firstSegment = snapshot.getAsLong() - 1;
+            }
+            long lastSegment = snapshot.orElse(0);
+            int records = 0;
+            for (long segment : generations(SEGMENT)) {
+                lastSegment = Math.max(lastSegment, segment);
+                if (segment >= firstSegment) {
+                    records += replaySegment(segmentPath(directory, segment), consumer);
+                }
+            }
+            log.info("Replayed {} journal records.", records);
+
+            generation = lastSegment + 1;
+            channel = openSegment(generation);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal replay failed", e);
+        }
+        accepting = true;
+        writer.start();
+    }
+
+    /**
+     * Queues a record. The returned future completes once the record is as durable as the
+     * journal's mode promises; in {@link DurabilityMode#ASYNC} it is already complete.
+     */
+    public CompletableFuture<Void> append(JournalRecord record) {
+        var written = mode == DurabilityMode.ASYNC ? QUEUED : new CompletableFuture<Void>();
+        enqueue(new PendingWrite(encode(record), 0, written));
+        return written;
+    }
+
+    /**
+     * Rolls to a new segment, snapshots the contracts returned by {@code state} and deletes
+     * segments and snapshots the new snapshot supersedes. Returns the snapshot generation.
+     */
+    public long checkpoint(Supplier<Iterable<LoanContractRequest>> state) throws IOException {
+        checkpointLock.lock();
+        try {
+            long snapshotGeneration;
+            var rolled = new CompletableFuture<Void>();
+            lock.lock();
+            try {
+                snapshotGeneration = generation + 1;
+                generation = snapshotGeneration;
+            } finally {
+                lock.unlock();
+            }
+            enqueue(new PendingWrite(null, snapshotGeneration, rolled));
+            rolled.join();
+
+            long count = ContractSnapshot.write(snapshotPath(directory, snapshotGeneration), snapshotGeneration,
+                    state.get());
+            log.info("Wrote snapshot {} with {} contracts.", snapshotGeneration, count);
+
+            for (long segment : generations(SEGMENT)) {
+                if (segment < snapshotGeneration - 1) {
+                    Files.deleteIfExists(segmentPath(directory, segment));
+                }
+            }
+            for (long snapshot : generations(SNAPSHOT)) {
+                if (snapshot < snapshotGeneration) {
+                    Files.deleteIfExists(snapshotPath(directory, snapshot));
+                }
+            }
+            return snapshotGeneration;
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            accepting = false;
+            closed = true;
+            LockSupport.unpark(writer);
+        } finally {
+            lock.unlock();
+        }
+        try {
+            if (writer.isAlive()) {
+                writer.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    /**
+     * Adds a write without blocking. A write that raced with {@link #close} is taken back
+     * unless the writer already picked it up.
+     */
+    private void enqueue(PendingWrite pending) {
+        if (failure != null) {
+            throw new IllegalStateException("Journal failed", failure);
+        }
+        if (!accepting) {
+            throw new IllegalStateException("Journal is not accepting appends");
+        }
+        queue.add(pending);
+        if (!accepting && queue.remove(pending)) {
+            throw new IllegalStateException("Journal is not accepting appends");
+        }
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            if (queue.isEmpty() && !closed) {
+                writerParked = true;
+                if (queue.isEmpty() && !closed) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(ASYNC_FORCE_INTERVAL_MILLIS));
+                }
+                writerParked = false;
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+            if (queue.isEmpty() && closed) {
+                return;
+            }
+            write(takeBatch());
+        }
+    }
+
+    private List<PendingWrite> takeBatch() {
+        List<PendingWrite> batch = new ArrayList<>();
+        PendingWrite pending;
+        while ((mode != DurabilityMode.FSYNC || batch.isEmpty()) && (pending = queue.poll()) != null) {
+            batch.add(pending);
+        }
+        return batch;
+    }
+
+    private void write(List<PendingWrite> batch) {
+        int start = 0;
+        for (int i = 0; i <= batch.size(); i++) {
+            if (i == batch.size() || batch.get(i).frame() == null) {
+                writeFrames(batch.subList(start, i));
+                if (i < batch.size()) {
+                    roll(batch.get(i));
+                }
+                start = i + 1;
+            }
+        }
+    }
+
+    private void writeFrames(List<PendingWrite> frames) {
+        if (failure != null) {
+            frames.forEach(pending -> pending.written().completeExceptionally(failure));
+            return;
+        }
+        long intact = -1;
+        try {
+            intact = channel.position();
+            if (!frames.isEmpty()) {
+                var buffers = frames.stream().map(PendingWrite::frame).toArray(ByteBuffer[]::new);
+                while (buffers[buffers.length - 1].hasRemaining()) {
+                    channel.write(buffers);
+                }
+                dirty = true;
+            }
+            if (dirty && (mode != DurabilityMode.ASYNC || asyncForceDue())) {
+                force();
+            }
+            frames.forEach(pending -> pending.written().complete(null));
+        } catch (IOException e) {
+            log.error("Journal write failed", e);
+            discardFrom(intact, e);
+            frames.forEach(pending -> pending.written().completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Cuts the segment back to {@code intact}, the end of the last frame written in full,
+     * so records appended after a failed write stay readable on replay. Fails the journal
+     * if the position is unknown or the cut itself fails.
+     */
+    private void discardFrom(long intact, IOException cause) {
+        try {
+            if (intact < 0) {
+                throw cause;
+            }
+            channel.truncate(intact);
+            channel.position(intact);
+        } catch (IOException e) {
+            log.error("Journal could not discard a partial write and refuses further appends", e);
+            fail(cause);
+        }
+    }
+
+    private void fail(IOException cause) {
+        failure = cause;
+        accepting = false;
+        PendingWrite pending;
+        while ((pending = queue.poll()) != null) {
+            pending.written().completeExceptionally(cause);
+        }
+    }
+
+    private void roll(PendingWrite request) {
+        if (failure != null) {
+            request.written().completeExceptionally(failure);
+            return;
+        }
+        try {
+            force();
+            channel.close();
+            channel = openSegment(request.rollTo());
+            request.written().complete(null);
+        } catch (IOException e) {
+            log.error("Journal roll failed", e);
+            fail(e);
+            request.written().completeExceptionally(e);
+        }
+    }
+
+    private void force() throws IOException {
+        channel.force(false);
+        dirty = false;
+        lastForceNanos = System.nanoTime();
+    }
+
+    private boolean asyncForceDue() {
+        return System.nanoTime() - lastForceNanos >= TimeUnit.MILLISECONDS.toNanos(ASYNC_FORCE_INTERVAL_MILLIS);
+    }
+
+    private FileChannel openSegment(long segment) throws IOException {
+        var segmentChannel = segmentChannels.apply(FileChannel.open(segmentPath(directory, segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE));
+        segmentChannel.position(segmentChannel.size());
+        return segmentChannel;
+    }
+
+    private static int replaySegment(Path segment, Consumer<JournalRecord> consumer) throws IOException {
+        try (var segmentChannel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = segmentChannel.size();
+            long validLength = 0;
+            int records = 0;
+            if (size > 0) {
+                var buffer = segmentChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                var crc = new CRC32();
+                while (buffer.remaining() >= HEADER_BYTES) {
+                    int length = buffer.getInt();
+                    int checksum = buffer.getInt();
+                    if (length < 0 || length > buffer.remaining()) {
+                        break;
+                    }
+                    var payload = buffer.slice(buffer.position(), length);
+                    crc.reset();
+                    crc.update(payload.duplicate());
+                    if ((int) crc.getValue() != checksum) {
+                        break;
+                    }
+                    consumer.accept(decode(payload));
+                    buffer.position(buffer.position() + length);
+                    validLength = buffer.position();
+                    records++;
+                }
+            }
+            if (validLength < size) {
+                log.warn("Discarding {} bytes of incomplete journal tail in {}.", size - validLength, segment);
+                segmentChannel.truncate(validLength);
+            }
+            return records;
+        }
+    }
+
+    private OptionalLong latest(Pattern pattern) throws IOException {
+        var generations = generations(pattern);
+        return generations.isEmpty() ? OptionalLong.empty() : OptionalLong.of(generations.last());
+    }
+
+    private TreeSet<Long> generations(Pattern pattern) throws IOException {
+        var generations = new TreeSet<Long>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                var matcher = pattern.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    generations.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        return generations;
+    }
+
+    static Path segmentPath(Path directory, long segment) {
+        return directory.resolve(String.format("contracts-%016d.journal", segment));
+    }
+
+    static Path snapshotPath(Path directory, long snapshot) {
+        return directory.resolve(String.format("contracts-%016d.snapshot", snapshot));
+    }
+
+    private static ByteBuffer encode(JournalRecord record) {
+        try {
+            var bytes = new ByteArrayOutputStream(128);
+            var out = new DataOutputStream(bytes);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeByte(record.type().ordinal());
+            ContractCodec.writeString(out, record.customerId());
+            if (record.type() != JournalRecord.Type.DELETE) {
+                ContractCodec.write(out, record.contract());
+            }
+            var frame = ByteBuffer.wrap(bytes.toByteArray());
+            var crc = new CRC32();
+            crc.update(frame.array(), HEADER_BYTES, frame.limit() - HEADER_BYTES);
+            frame.putInt(0, frame.limit() - HEADER_BYTES);
+            frame.putInt(4, (int) crc.getValue());
+            return frame;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static JournalRecord decode(ByteBuffer payload) {
+        var type = JournalRecord.Type.values()[payload.get()];
+        var customerId = ContractCodec.readString(payload);
+        var contract = type == JournalRecord.Type.DELETE ? null : ContractCodec.read(payload);
+        return new JournalRecord(type, customerId, contract);
+    }
+}
@@ -0,0 +1,105 @@
+package com.mybank.contractapproval.journal;
+
+import com.mybank.contractapproval.model.LoanContractRequest;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Binary snapshot of every stored contract.
+ *
+ * <p>Layout: {@code [int magic][long generation][int length][contract]...[int -1][long count]}.
+ * A snapshot is written to a temporary file, forced and atomically renamed, so a file with
+ * the final name is always complete. Loading memory-maps the file in windows of at most
+ * {@link #MAX_WINDOW_BYTES}.
+ */
+final class ContractSnapshot {
+
+    static final int MAGIC = 0x4C435331;
+
+    private static final int MAX_WINDOW_BYTES = 1 << 30;
+    private static final int END_OF_CONTRACTS = -1;
+
+    private ContractSnapshot() {
+    }
+
+    static long write(Path target, long generation, Iterable<LoanContractRequest> contracts) throws IOException {
+        var temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        long count = 0;
+        try (var channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            var out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            var record = new ByteArrayOutputStream(256);
+            var recordOut = new DataOutputStream(record);
+            out.writeInt(MAGIC);
+            out.writeLong(generation);
+            for (LoanContractRequest contract : contracts) {
+                record.reset();
+                ContractCodec.write(recordOut, contract);
+                out.writeInt(record.size());
+                record.writeTo(out);
+                count++;
+            }
+            out.writeInt(END_OF_CONTRACTS);
+            out.writeLong(count);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return count;
+    }
+
+    static long read(Path source, Consumer<LoanContractRequest> consumer) throws IOException {
+        try (var channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            var window = map(channel, position, size);
+            if (window.getInt() != MAGIC) {
+                throw new IOException("Not a contract snapshot: " + source);
+            }
+            window.getLong();
+            long count = 0;
+            while (true) {
+                if (window.remaining() < Integer.BYTES) {
+                    position += window.position();
+                    window = map(channel, position, size);
+                }
+                int length = window.getInt();
+                if (length == END_OF_CONTRACTS) {
+                    break;
+                }
+                if (window.remaining() < length) {
+                    position += window.position() - Integer.BYTES;
+                    window = map(channel, position, size);
+                    window.getInt();
+                }
+                var record = window.slice(window.position(), length);
+                consumer.accept(ContractCodec.read(record));
+                window.position(window.position() + length);
+                count++;
+            }
+            if (window.remaining() < Long.BYTES) {
+                position += window.position();
+                window = map(channel, position, size);
+            }
+            if (window.getLong() != count) {
+                throw new IOException("Snapshot " + source + " is truncated");
+            }
+            return count;
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, MAX_WINDOW_BYTES));
+    }
+}
@@ -0,0 +1,17 @@
+package com.mybank.contractapproval.journal;
+
+public enum DurabilityMode {
+    /**
+     * Every record is forced to disk on its own before the writer returns.
+     */
+    FSYNC,
+    /**
+     * Records queued while a force is in progress are written and forced together; writers
+     * still wait until their record is on disk.
+     */
+    GROUP_COMMIT,
+    /**
+     * Writers return as soon as the record is queued; the journal is forced periodically.
+     */
+    ASYNC
+}
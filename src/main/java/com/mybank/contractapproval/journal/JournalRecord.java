@@ -0,0 +1,32 @@
+package com.mybank.contractapproval.journal;
+
+import com.mybank.contractapproval.model.LoanContractRequest;
+
+/**
+ * One repository mutation as written to the journal. {@code contract} is {@code null} for
+ * deletes.
+ */
+public record JournalRecord(
+        Type type,
+        String customerId,
+        LoanContractRequest contract
+) {
+
+    public enum Type {
+        SAVE,
+        REPLACE,
+        DELETE
+    }
+
+    public static JournalRecord save(LoanContractRequest contract) {
+        return new JournalRecord(Type.SAVE, contract.customerId(), contract);
+    }
+
+    public static JournalRecord replace(LoanContractRequest contract) {
+        return new JournalRecord(Type.REPLACE, contract.customerId(), contract);
+    }
+
+    public static JournalRecord delete(String customerId) {
+        return new JournalRecord(Type.DELETE, customerId, null);
+    }
+}
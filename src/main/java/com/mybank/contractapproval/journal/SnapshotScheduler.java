@@ -0,0 +1,30 @@
+package com.mybank.contractapproval.journal;
+
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(name = "journal.enabled", havingValue = "true")
+@AllArgsConstructor
+@Slf4j
+public class SnapshotScheduler {
+
+    private final LoanContractRepository repository;
+
+    @Scheduled(fixedDelayString = "${journal.snapshot.interval.minutes}",
+            initialDelayString = "${journal.snapshot.interval.minutes}", timeUnit = TimeUnit.MINUTES)
+    public void snapshot() {
+        try {
+            repository.snapshot();
+        } catch (IOException e) {
+            log.error("Snapshot failed, the journal keeps growing until the next attempt", e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.mybank.contractapproval.metrics;
+
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+import com.mybank.contractapproval.repository.ContractChangeListener;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import com.mybank.contractapproval.service.LoanApprovalService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the repository's store and index sizes as gauges, and counts contract status
+ * transitions (such as PENDING to SENT) and approver votes as they are made. Request
+ * timings come from Spring's {@code http.server.requests}, repository operation timings
+ * from {@code contracts.repository} and cache hits and misses from {@code cache.gets}.
+ */
+@Component
+public class ContractMetrics implements MeterBinder, ContractChangeListener {
+
+    static final String NONE = "NONE";
+
+    private final LoanContractRepository repository;
+    private final LoanApprovalService loanApprovalService;
+    private volatile Counter[][] transitions;
+    private volatile Map<ApprovalStatus, Counter> votes;
+
+    public ContractMetrics(LoanContractRepository repository, LoanApprovalService loanApprovalService) {
+        this.repository = repository;
+        this.loanApprovalService = loanApprovalService;
+        repository.addListener(this);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("contracts.stored", repository, LoanContractRepository::count)
+                .description("Contracts currently stored")
+                .register(registry);
+        for (ContractStatus status : ContractStatus.values()) {
+            indexSize(registry, "status", status, () -> repository.countContractsByStatus(status));
+        }
+        for (LoanType loanType : LoanType.values()) {
+            indexSize(registry, "loanType", loanType, () -> repository.countContractsByLoanType(loanType));
+        }
+        for (Managers approver : Managers.values()) {
+            indexSize(registry, "approver", approver, () -> repository.countContractsByApprover(approver));
+        }
+        FunctionCounter.builder("contracts.decision.retries", loanApprovalService, LoanApprovalService::optimisticRetries)
+                .description("Decisions retried after losing a race to a concurrent vote")
+                .register(registry);
+
+        var statuses = ContractStatus.values();
+        var counters = new Counter[statuses.length + 1][statuses.length + 1];
+        for (int from = 0; from <= statuses.length; from++) {
+            for (int to = 0; to <= statuses.length; to++) {
+                if (from != to) {
+                    counters[from][to] = Counter.builder("contracts.transitions")
+                            .description("Contract status changes; NONE is a create or delete")
+                            .tag("from", from == statuses.length ? NONE : statuses[from].name())
+                            .tag("to", to == statuses.length ? NONE : statuses[to].name())
+                            .register(registry);
+                }
+            }
+        }
+        Map<ApprovalStatus, Counter> voteCounters = new EnumMap<>(ApprovalStatus.class);
+        for (ApprovalStatus status : ApprovalStatus.values()) {
+            voteCounters.put(status, Counter.builder("contracts.votes")
+                    .description("Approver votes that changed an approver's status")
+                    .tag("status", status.name())
+                    .register(registry));
+        }
+        votes = voteCounters;
+        transitions = counters;
+    }
+
+    @Override
+    public void changed(LoanContractRequest previous, LoanContractRequest current) {
+        var counters = transitions;
+        if (counters == null) {
+            return;
+        }
+        int from = ordinal(previous);
+        int to = ordinal(current);
+        if (from != to) {
+            counters[from][to].increment();
+        }
+        if (previous != null && current != null) {
+            countVotes(previous, current);
+        }
+    }
+
+    private void countVotes(LoanContractRequest previous, LoanContractRequest current) {
+        var before = previous.approvers();
+        var after = current.approvers();
+        if (before.size() != after.size()) {
+            return;
+        }
+        for (int i = 0; i < after.size(); i++) {
+            var status = after.get(i).status();
+            if (status != null && before.get(i).username() == after.get(i).username()
+                    && before.get(i).status() != status) {
+                votes.get(status).increment();
+            }
+        }
+    }
+
+    private static int ordinal(LoanContractRequest contract) {
+        return contract == null || contract.loanContractStatus() == null
+                ? ContractStatus.values().length
+                : contract.loanContractStatus().ordinal();
+    }
+
+    private static void indexSize(MeterRegistry registry, String index, Enum<?> key, Supplier<Number> size) {
+        Gauge.builder("contracts.index.size", size)
+                .description("Contracts in one bucket of a repository index")
+                .tag("index", index)
+                .tag("key", key.name())
+                .register(registry);
+    }
+}
@@ -0,0 +1,136 @@
+package com.mybank.contractapproval.model;
+
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+
+import java.util.List;
+
+/**
+ * A contract's approvers packed into one {@code int}, so approval checks are a few bit
+ * operations instead of walks over the approver list.
+ *
+ * <pre>
+ *   bits  0-4   assigned managers, one bit per {@link Managers} ordinal
+ *   bits  5-9   managers that APPROVED
+ *   bits 10-14  managers that REJECTED
+ *   bit  15     some approver entry is not APPROVED
+ *   bits 16-23  number of approver entries
+ * </pre>
+ *
+ * The last two fields keep the checks exactly in line with the list they came from even
+ * when it names a manager twice or holds an entry without a manager.
+ */
+public final class ApproverMask {
+
+    public static final int EMPTY = 0;
+
+    private static final int MANAGERS = Managers.values().length;
+    private static final int MANAGER_BITS = (1 << MANAGERS) - 1;
+    private static final int APPROVED_SHIFT = MANAGERS;
+    private static final int REJECTED_SHIFT = 2 * MANAGERS;
+    private static final int NOT_ALL_APPROVED = 1 << 15;
+    private static final int COUNT_SHIFT = 16;
+    private static final int MAX_COUNT = 0xFF;
+
+    private ApproverMask() {
+    }
+
+    /**
+     * Encodes the approver list without allocating.
+     */
+    public static int of(List<Approver> approvers) {
+        if (approvers == null) {
+            return EMPTY;
+        }
+        int mask = Math.min(approvers.size(), MAX_COUNT) << COUNT_SHIFT;
+        for (int i = 0; i < approvers.size(); i++) {
+            var approver = approvers.get(i);
+            var status = approver.status();
+            if (status != ApprovalStatus.APPROVED) {
+                mask |= NOT_ALL_APPROVED;
+            }
+            if (approver.username() == null) {
+                continue;
+            }
+            int bit = bit(approver.username());
+            mask |= bit;
+            if (status == ApprovalStatus.APPROVED) {
+                mask |= bit << APPROVED_SHIFT;
+            } else if (status == ApprovalStatus.REJECTED) {
+                mask |= bit << REJECTED_SHIFT;
+            }
+        }
+        return mask;
+    }
+
+    public static int bit(Managers manager) {
+        return 1 << manager.ordinal();
+    }
+
+    public static int assigned(int mask) {
+        return mask & MANAGER_BITS;
+    }
+
+    public static int approved(int mask) {
+        return mask >>> APPROVED_SHIFT & MANAGER_BITS;
+    }
+
+    public static int rejected(int mask) {
+        return mask >>> REJECTED_SHIFT & MANAGER_BITS;
+    }
+
+    public static int pending(int mask) {
+        return assigned(mask) & ~approved(mask) & ~rejected(mask);
+    }
+
+    /**
+     * Number of approver entries, counting a manager named twice twice.
+     */
+    public static int count(int mask) {
+        return mask >>> COUNT_SHIFT & MAX_COUNT;
+    }
+
+    /**
+     * Number of distinct managers that APPROVED.
+     */
+    public static int approvals(int mask) {
+        return Integer.bitCount(approved(mask));
+    }
+
+    public static boolean isAssigned(int mask, Managers manager) {
+        return (assigned(mask) & bit(manager)) != 0;
+    }
+
+    public static boolean hasApproved(int mask, Managers manager) {
+        return (approved(mask) & bit(manager)) != 0;
+    }
+
+    /**
+     * Whether every approver entry is APPROVED; true when there are none.
+     */
+    public static boolean allApproved(int mask) {
+        return (mask & NOT_ALL_APPROVED) == 0;
+    }
+
+    /**
+     * Whether there are enough approvers for the loan type: one for a general loan, two
+     * for a mortgage.
+     */
+    public static boolean hasSufficientApprovers(int mask, LoanType loanType) {
+        if (loanType == LoanType.GENERAL) {
+            return count(mask) >= 1;
+        }
+        if (loanType == LoanType.MORTGAGE) {
+            return count(mask) >= 2;
+        }
+        return false;
+    }
+
+    /**
+     * Whether the contract is ready to be sent to the customer.
+     */
+    public static boolean isApproved(int mask, LoanType loanType) {
+        return allApproved(mask) && hasSufficientApprovers(mask, loanType);
+    }
+}
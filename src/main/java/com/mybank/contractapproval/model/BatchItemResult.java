@@ -0,0 +1,27 @@
+package com.mybank.contractapproval.model;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Outcome of one item of a batch request: the HTTP status the item would have received from
+ * the matching single-item endpoint, and the reason when it was not applied.
+ */
+public record BatchItemResult(
+        int index,
+        String customerId,
+        int status,
+        String message
+) {
+
+    public static BatchItemResult created(int index, String customerId) {
+        return new BatchItemResult(index, customerId, HttpStatus.CREATED.value(), null);
+    }
+
+    public static BatchItemResult decided(int index, String customerId) {
+        return new BatchItemResult(index, customerId, HttpStatus.NO_CONTENT.value(), null);
+    }
+
+    public static BatchItemResult rejected(int index, String customerId, HttpStatus status, String message) {
+        return new BatchItemResult(index, customerId, status.value(), message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.mybank.contractapproval.model;
+
+import java.util.List;
+
+/**
+ * One page of contracts in ascending customer ID order. {@code next} is the cursor to pass
+ * as {@code after} for the following page, or {@code null} on the last page.
+ */
+public record ContractPage(
+        List<LoanContractRequest> contracts,
+        String next
+) {
+}
@@ -0,0 +1,11 @@
+package com.mybank.contractapproval.model;
+
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.Managers;
+
+public record DecisionVote(
+        String customerId,
+        Managers username,
+        ApprovalStatus status
+) {
+}
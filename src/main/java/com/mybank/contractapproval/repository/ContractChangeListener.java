@@ -0,0 +1,26 @@
+package com.mybank.contractapproval.repository;
+
+import com.mybank.contractapproval.model.LoanContractRequest;
+
+/**
+ * Notified of every contract change the repository makes once the change is durable, one
+ * change at a time and in the order the changes were made. A change whose journal record
+ * failed is rolled back and not reported, and neither are changes replayed from the journal
+ * on startup. Implementations must be quick, since later changes wait for them.
+ */
+@FunctionalInterface
+public interface ContractChangeListener {
+
+    /**
+     * @param previous the contract before the change, or {@code null} when it was created
+     * @param current  the contract after the change, or {@code null} when it was deleted
+     */
+    void changed(LoanContractRequest previous, LoanContractRequest current);
+
+    /**
+     * Called after reported changes, outside any repository lock, so it may hand work to
+     * other threads. Called at least once after every reported change.
+     */
+    default void committed() {
+    }
+}
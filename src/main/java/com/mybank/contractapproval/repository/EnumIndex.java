@@ -0,0 +1,44 @@
+package com.mybank.contractapproval.repository;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Secondary index from an enum value to the customer IDs currently carrying it.
+ * Every constant gets its own concurrent set up front, so the map itself is never
+ * structurally modified after construction.
+ */
+class EnumIndex<E extends Enum<E>> {
+
+    private final Map<E, Set<String>> index;
+
+    EnumIndex(Class<E> type) {
+        index = new EnumMap<>(type);
+        for (E key : type.getEnumConstants()) {
+            index.put(key, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    void add(E key, String customerId) {
+        if (key != null) {
+            index.get(key).add(customerId);
+        }
+    }
+
+    void remove(E key, String customerId) {
+        if (key != null) {
+            index.get(key).remove(customerId);
+        }
+    }
+
+    Set<String> get(E key) {
+        return Collections.unmodifiableSet(index.get(key));
+    }
+
+    int size(E key) {
+        return index.get(key).size();
+    }
+}
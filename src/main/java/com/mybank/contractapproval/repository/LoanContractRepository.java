@@ -1,122 +1,713 @@
 package com.mybank.contractapproval.repository;
 
+import com.mybank.contractapproval.config.CacheConfig;
+import com.mybank.contractapproval.events.ContractEventLog;
+import com.mybank.contractapproval.events.ContractProjection;
+import com.mybank.contractapproval.jfr.RepositoryWriteEvent;
+import com.mybank.contractapproval.journal.ContractJournal;
+import com.mybank.contractapproval.journal.JournalRecord;
 import com.mybank.contractapproval.model.Approver;
 import com.mybank.contractapproval.model.LoanContractRequest;
-import com.mybank.contractapproval.model.enums.ApprovalStatus;
 import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
 import com.mybank.contractapproval.statistics.ApproverStatistics;
-import lombok.AllArgsConstructor;
+import com.mybank.contractapproval.statistics.ContractStatisticsAggregate;
+import com.mybank.contractapproval.statistics.SentContractsWindow;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Repository;
 
-import java.text.DecimalFormat;
-import java.time.LocalDateTime;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 @Repository
-@AllArgsConstructor
 @Slf4j
+@Timed(value = "contracts.repository", description = "Time spent in repository operations")
 public class LoanContractRepository {
 
-    public final List<LoanContractRequest> loanContractRequestList = new ArrayList<>();
+    public static final int DEFAULT_SENT_HORIZON_MINUTES = 1440;
 
+    private static final CompletableFuture<Void> IN_MEMORY = CompletableFuture.completedFuture(null);
+
+    /**
+     * Contracts keyed by customer ID. Lookups, replacements and deletes are O(1) and safe
+     * for concurrent request threads.
+     */
+    private final ConcurrentMap<String, VersionedContract> contracts = new ConcurrentHashMap<>();
+
+    /**
+     * Bumped by every mutation. Each stored contract carries the version of the mutation
+     * that stored it, and the current value versions everything derived from all contracts.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Customer IDs in ascending order, for keyset pagination and ordered streaming. Kept in
+     * step with {@link #contracts} inside the same per-key compute.
+     */
+    private final NavigableSet<String> customerIds = new ConcurrentSkipListSet<>();
+
+    private final EnumIndex<ContractStatus> statusIndex = new EnumIndex<>(ContractStatus.class);
+    private final EnumIndex<LoanType> loanTypeIndex = new EnumIndex<>(LoanType.class);
+    private final EnumIndex<Managers> approverIndex = new EnumIndex<>(Managers.class);
+    private final ContractStatisticsAggregate statistics = new ContractStatisticsAggregate();
+    private final SentContractsWindow sentContractsWindow;
+
+    /**
+     * Every change is turned into events here, which keep {@link #statistics} and the
+     * registered projections up to date.
+     */
+    private final ContractEventLog events;
+
+    /**
+     * Write-ahead journal every mutation is appended to, or {@code null} when contracts only
+     * live in memory. Mutating calls return once their record is as durable as the
+     * journal's mode promises.
+     */
+    private final ContractJournal journal;
+
+    private final List<ContractChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Live writes in the order they were made; each customer's writes are added from inside
+     * the compute that makes them. A write reaches the events, the sent contracts window and
+     * the listeners only once its journal record is durable. A write whose record failed is
+     * rolled back instead and never reported. Published by one thread at a time.
+     */
+    private final Queue<PendingWrite> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger publishing = new AtomicInteger();
+
+    /**
+     * Per customer, the contract to report as the previous one of its next write, when the
+     * write that one built on was discarded but could not be rolled back. Only touched while
+     * publishing.
+     */
+    private final Map<String, VersionedContract> discarded = new HashMap<>();
+
+    private volatile Cache cachedContracts;
+
+    public LoanContractRepository() {
+        this(DEFAULT_SENT_HORIZON_MINUTES, (ContractJournal) null);
+    }
+
+    @Autowired
+    public LoanContractRepository(
+            @Value("${statistics.sent.contracts.horizon.minutes:" + DEFAULT_SENT_HORIZON_MINUTES + "}")
+            int sentHorizonMinutes,
+            ObjectProvider<ContractJournal> journal,
+            ObjectProvider<ContractProjection> projections) {
+        this(sentHorizonMinutes, journal.getIfAvailable(),
+                projections.orderedStream().toArray(ContractProjection[]::new));
+    }
+
+    /**
+     * @param projections read models to keep up to date from the first event on, including
+     *                    the contracts replayed from the journal
+     */
+    public LoanContractRepository(int sentHorizonMinutes, ContractJournal journal,
+                                  ContractProjection... projections) {
+        this.sentContractsWindow = new SentContractsWindow(sentHorizonMinutes);
+        this.events = new ContractEventLog(statistics);
+        for (ContractProjection projection : projections) {
+            this.events.register(projection);
+        }
+        this.journal = journal;
+        if (journal != null) {
+            journal.replay(this::restore);
+            log.info("Restored {} contracts from the journal.", contracts.size());
+        }
+    }
+
+    /**
+     * Evicts the cached response of a contract whose write is rolled back, since a reader
+     * may have cached the change before its journal record failed.
+     */
+    @Autowired(required = false)
+    void setCacheManager(CacheManager cacheManager) {
+        this.cachedContracts = cacheManager.getCache(CacheConfig.CONTRACTS);
+    }
+
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.CONTRACTS, key = "#cRequest.customerId()"),
+            @CacheEvict(value = CacheConfig.STATISTICS, allEntries = true)
+    })
     public void save (LoanContractRequest cRequest){
         log.info("Contract has been created.");
-        loanContractRequestList.add(cRequest);
+        store(JournalRecord.save(cRequest));
     }
 
+    /**
+     * Stores the contract unless the customer already has a PENDING one. The check and the
+     * insert are one atomic step, so concurrent creates for the same customer cannot both
+     * get in. Returns whether the contract was stored.
+     */
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.CONTRACTS, key = "#cRequest.customerId()"),
+            @CacheEvict(value = CacheConfig.STATISTICS, allEntries = true)
+    })
+    public boolean saveIfNoPending(LoanContractRequest cRequest) {
+        var written = insertIfNoPending(cRequest);
+        if (written == null) {
+            return false;
+        }
+        finishWrite(written);
+        log.info("Contract has been created.");
+        return true;
+    }
+
+    /**
+     * Applies {@link #saveIfNoPending} to each contract in order and returns, per position,
+     * whether it was stored. All journal records of the batch are appended before the first
+     * one is awaited, so a batch costs about one journal flush instead of one per contract.
+     * Callers evict the cached contracts of the stored customers.
+     */
+    @CacheEvict(value = CacheConfig.STATISTICS, allEntries = true)
+    public boolean[] saveAllIfNoPending(List<LoanContractRequest> cRequests) {
+        var saved = new boolean[cRequests.size()];
+        var written = new ArrayList<PendingWrite>(cRequests.size());
+        try {
+            for (int i = 0; i < cRequests.size(); i++) {
+                var write = insertIfNoPending(cRequests.get(i));
+                if (write != null) {
+                    saved[i] = true;
+                    written.add(write);
+                }
+            }
+        } finally {
+            finishWrites(written);
+        }
+        log.info("{} of {} contracts have been created.", written.size(), cRequests.size());
+        return saved;
+    }
+
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.CONTRACTS, key = "#cRequest.customerId()"),
+            @CacheEvict(value = CacheConfig.STATISTICS, allEntries = true)
+    })
     public void replace (LoanContractRequest cRequest){
-        loanContractRequestList.removeIf(loanContractRequest -> loanContractRequest.customerId
-         ().equals(cRequest.customerId()));
-        loanContractRequestList.add(cRequest);
+        var event = new RepositoryWriteEvent();
+        event.begin();
+        store(JournalRecord.replace(cRequest));
+        commit(event, "replace", cRequest, true);
         log.info("Contract has been updated.");
     }
 
+    public Optional<LoanContractRequest> findById(String id) {
+        return findVersionedById(id).map(VersionedContract::contract);
+    }
+
+    public Optional<VersionedContract> findVersionedById(String id) {
+        return Optional.ofNullable(contracts.get(id));
+    }
+
+    /**
+     * Returns the version of the latest mutation. It changes whenever a contract, an index
+     * or the statistics change.
+     */
+    public long version() {
+        return version.get();
+    }
+
     public boolean existsById(String id) {
-        return loanContractRequestList
-                .stream().filter(loanContractRequest -> loanContractRequest.customerId().equals(id)).count() == 1;
+        return contracts.containsKey(id);
+    }
+
+    /**
+     * Replaces the stored contract with the result of {@code update} as one atomic step per
+     * customer: concurrent updates of the same contract run one after another, each seeing
+     * the result of the previous one. Returns the new contract, or empty if none is stored.
+     * When {@code update} returns the stored instance itself nothing is written: the version
+     * stays, and no event or journal record is produced.
+     */
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.CONTRACTS, key = "#id"),
+            @CacheEvict(value = CacheConfig.STATISTICS, allEntries = true)
+    })
+    public Optional<LoanContractRequest> update(String id, UnaryOperator<LoanContractRequest> update) {
+        var event = new RepositoryWriteEvent();
+        event.begin();
+        var written = new PendingWrite[1];
+        var updated = contracts.computeIfPresent(id, (customerId, previous) -> {
+            var current = update.apply(previous.contract());
+            if (current == previous.contract()) {
+                return previous;
+            }
+            written[0] = write(previous, JournalRecord.replace(current));
+            return written[0].current();
+        });
+        if (updated == null) {
+            return Optional.empty();
+        }
+        finishWrite(written[0]);
+        commit(event, "update", updated.contract(), written[0] != null);
+        log.info("Contract has been updated.");
+        return Optional.of(updated.contract());
+    }
+
+    /**
+     * Replaces the stored contract only if it is still at {@code expectedVersion}, as one
+     * atomic compare-and-set per customer. Returns the stored contract after the call: the
+     * replacement on success, the unchanged contract when another writer got there first,
+     * or empty if none is stored.
+     */
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.CONTRACTS, key = "#cRequest.customerId()"),
+            @CacheEvict(value = CacheConfig.STATISTICS, allEntries = true)
+    })
+    public Optional<VersionedContract> replaceIfVersion(LoanContractRequest cRequest, long expectedVersion) {
+        var event = new RepositoryWriteEvent();
+        event.begin();
+        var written = new PendingWrite[1];
+        var stored = contracts.computeIfPresent(cRequest.customerId(), (customerId, previous) -> {
+            if (previous.version() != expectedVersion) {
+                return previous;
+            }
+            written[0] = write(previous, JournalRecord.replace(cRequest));
+            return written[0].current();
+        });
+        finishWrite(written[0]);
+        commit(event, "replaceIfVersion", cRequest, written[0] != null);
+        return Optional.ofNullable(stored);
     }
 
+    /**
+     * Deletes the stored contract only if it is still at {@code expectedVersion}. Returns
+     * whether it was deleted.
+     */
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.CONTRACTS, key = "#id"),
+            @CacheEvict(value = CacheConfig.STATISTICS, allEntries = true)
+    })
+    public boolean deleteIfVersion(String id, long expectedVersion) {
+        var written = new PendingWrite[1];
+        contracts.computeIfPresent(id, (customerId, previous) -> {
+            if (previous.version() != expectedVersion) {
+                return previous;
+            }
+            written[0] = write(previous, JournalRecord.delete(customerId));
+            return written[0].current();
+        });
+        if (written[0] == null) {
+            return false;
+        }
+        finishWrite(written[0]);
+        log.info(id + " has been deleted.");
+        return true;
+    }
+
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.CONTRACTS, key = "#id"),
+            @CacheEvict(value = CacheConfig.STATISTICS, allEntries = true)
+    })
     public void deleteById(String id) {
         log.info(id + " has been deleted.");
-        loanContractRequestList.removeIf(loanContractRequest -> loanContractRequest.customerId().equals(id));
+        var written = new PendingWrite[1];
+        contracts.computeIfPresent(id, (customerId, previous) -> {
+            written[0] = write(previous, JournalRecord.delete(customerId));
+            return written[0].current();
+        });
+        finishWrite(written[0]);
     }
 
-    public boolean statusContractPending(LoanContractRequest cRequest) {
-        return loanContractRequestList.stream()
-                .filter(loanContractRequest -> loanContractRequest.customerId().equals(cRequest.customerId()))
-                .anyMatch(loanContractRequest -> loanContractRequest.loanContractStatus() == ContractStatus.PENDING);
+    /**
+     * Writes a snapshot of all contracts and compacts the journal behind it. Does nothing
+     * when contracts only live in memory.
+     */
+    public void snapshot() throws IOException {
+        if (journal != null) {
+            journal.checkpoint(this::storedContracts);
+        }
     }
 
-    public List<LoanContractRequest> findSentContracts(int minutes) {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime startTime = now.minusMinutes(minutes);
+    /**
+     * Whether mutating calls wait for the journal, and so may block on disk I/O.
+     */
+    public boolean isJournaled() {
+        return journal != null;
+    }
 
-        return loanContractRequestList.stream()
-                .filter(contract -> contract.createdDate().isAfter(startTime))
-                .filter(contract -> contract.loanContractStatus() == ContractStatus.SENT)
-                .toList();
+    public int count() {
+        return contracts.size();
+    }
+
+    public long countContractsByStatus(ContractStatus status) {
+        return statusIndex.size(status);
+    }
+
+    public long countContractsByLoanType(LoanType loanType) {
+        return loanTypeIndex.size(loanType);
+    }
+
+    public long countContractsByApprover(Managers approver) {
+        return approverIndex.size(approver);
+    }
+
+    /**
+     * Registers a listener for every contract change made from now on.
+     */
+    public void addListener(ContractChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public List<LoanContractRequest> findByStatus(ContractStatus status) {
+        return resolve(statusIndex.get(status));
+    }
+
+    public List<LoanContractRequest> findByLoanType(LoanType loanType) {
+        return resolve(loanTypeIndex.get(loanType));
+    }
+
+    public List<LoanContractRequest> findByApprover(Managers approver) {
+        return resolve(approverIndex.get(approver));
+    }
+
+    /**
+     * Counts contracts that moved to SENT in the last {@code minutes}, up to the configured
+     * horizon. Deleting a contract afterwards does not retract its transition.
+     */
+    public long countSentContracts(int minutes) {
+        return sentContractsWindow.count(minutes);
     }
 
     public List<LoanContractRequest> findAllContracts() {
-        return loanContractRequestList.stream()
+        return contracts.values().stream()
+                .map(VersionedContract::contract)
                 .toList();
     }
 
-    public double calculateSumOfLoanAmounts() {
-        double sum = loanContractRequestList.stream()
-                .mapToDouble(LoanContractRequest::loanAmount)
-                .sum();
+    /**
+     * Returns up to {@code limit} contracts with customer IDs strictly after {@code after}
+     * (or from the start when it is {@code null}), in ascending customer ID order. Cost
+     * depends on the page size, not on how many contracts are stored.
+     */
+    public List<LoanContractRequest> findPage(String after, int limit) {
+        var ids = after == null ? customerIds : customerIds.tailSet(after, false);
+        List<LoanContractRequest> page = new ArrayList<>(Math.min(limit, 1024));
+        for (String customerId : ids) {
+            if (page.size() == limit) {
+                break;
+            }
+            var contract = contracts.get(customerId);
+            if (contract != null) {
+                page.add(contract.contract());
+            }
+        }
+        return page;
+    }
 
-        DecimalFormat df = new DecimalFormat("#.##");
+    /**
+     * Lazily streams all contracts in ascending customer ID order without copying them.
+     * Contracts changed while the stream is consumed may or may not be seen.
+     */
+    public Stream<LoanContractRequest> streamAllContracts() {
+        return customerIds.stream()
+                .map(contracts::get)
+                .filter(Objects::nonNull)
+                .map(VersionedContract::contract);
+    }
 
-        return Double.parseDouble(df.format(sum));
+    public double calculateSumOfLoanAmounts() {
+        return statistics.sum();
     }
 
     public double calculateAverageLoanAmount() {
-        double average = loanContractRequestList.stream()
-                .mapToDouble(LoanContractRequest::loanAmount)
-                .average()
-                .orElse(0.0);
-
-        DecimalFormat df = new DecimalFormat("#.##");
-
-        return Double.parseDouble(df.format(average));
+        return statistics.average();
     }
 
     public double findMaxLoanAmount() {
-        return loanContractRequestList.stream()
-                .mapToDouble(LoanContractRequest::loanAmount)
-                .max()
-                .orElse(0.0);
+        return statistics.max();
     }
 
     public double findMinLoanAmount() {
-        return loanContractRequestList.stream()
-                .mapToDouble(LoanContractRequest::loanAmount)
-                .min()
-                .orElse(0.0);
+        return statistics.min();
     }
 
     public List<ApproverStatistics> calculateApproverStatistics() {
-        Map<String, Long> counter = new HashMap<>();
+        return statistics.approverStatistics();
+    }
 
-        for (LoanContractRequest contract : loanContractRequestList) {
-            for (Approver approver : contract.approvers()) {
-                if (approver.status() == ApprovalStatus.APPROVED) {
-                    String username = approver.username().toString();
-                    counter.put(username, counter.getOrDefault(username, 0L) + 1);
-                }
+    /**
+     * Returns the pending write of the inserted contract, or {@code null} if the customer
+     * already has a PENDING contract.
+     */
+    private PendingWrite insertIfNoPending(LoanContractRequest cRequest) {
+        var written = new PendingWrite[1];
+        contracts.compute(cRequest.customerId(), (customerId, previous) -> {
+            if (previous != null && previous.contract().loanContractStatus() == ContractStatus.PENDING) {
+                return previous;
             }
+            written[0] = write(previous, JournalRecord.save(cRequest));
+            return written[0].current();
+        });
+        return written[0];
+    }
+
+    private void store(JournalRecord record) {
+        var written = new PendingWrite[1];
+        contracts.compute(record.customerId(), (customerId, previous) -> {
+            written[0] = write(previous, record);
+            return written[0].current();
+        });
+        finishWrite(written[0]);
+    }
+
+    /**
+     * Applies a journal record during startup replay. Its events are recorded right away,
+     * and replayed SENT contracts are not counted as fresh transitions.
+     */
+    private void restore(JournalRecord record) {
+        if (record.type() == JournalRecord.Type.DELETE) {
+            contracts.computeIfPresent(record.customerId(), (customerId, previous) -> replay(previous, record));
+        } else {
+            contracts.compute(record.customerId(), (customerId, previous) -> replay(previous, record));
         }
+    }
+
+    private VersionedContract replay(VersionedContract stored, JournalRecord record) {
+        var current = apply(stored, record);
+        events.record(contract(stored), contract(current));
+        return current;
+    }
+
+    private Iterable<LoanContractRequest> storedContracts() {
+        return () -> contracts.values().stream()
+                .map(VersionedContract::contract)
+                .iterator();
+    }
 
-        List<ApproverStatistics> approverStatistics = new ArrayList<>();
-        for (Map.Entry<String, Long> entry : counter.entrySet()) {
-            approverStatistics.add(new ApproverStatistics(entry.getKey(), entry.getValue()));
+    private static void commit(RepositoryWriteEvent event, String operation, LoanContractRequest contract, boolean applied) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.customerId = contract.customerId();
+            event.loanType = String.valueOf(contract.loanType());
+            event.indexEntries = applied ? 2 * (2 + contract.approvers().size()) : 0;
+            event.applied = applied;
+            event.commit();
         }
+    }
+
+    private CompletableFuture<?> journal(JournalRecord record) {
+        return journal == null ? IN_MEMORY : journal.append(record);
+    }
+
+    /**
+     * Appends {@code record} to the journal and applies it to the map entry and the indexes.
+     * Only called inside a compute on the customer's key. Everything else learns of the
+     * change once the record is durable, see {@link #publish()}.
+     */
+    private PendingWrite write(VersionedContract stored, JournalRecord record) {
+        var written = journal(record);
+        var write = new PendingWrite(record.customerId(), stored, apply(stored, record), written,
+                new CompletableFuture<>());
+        pending.add(write);
+        return write;
+    }
 
-        approverStatistics.sort(Comparator.comparing(ApproverStatistics::getNumberOfApprovals).reversed());
+    private VersionedContract apply(VersionedContract stored, JournalRecord record) {
+        return record.type() == JournalRecord.Type.DELETE ? evict(stored) : swap(stored, record.contract());
+    }
+
+    /**
+     * Waits until a write's journal record is done and the write is published, so its
+     * caller sees its effects. Throws the journal's failure when the write was rolled back
+     * instead. Runs after the map update, so listeners are not called under its lock. Does
+     * nothing when nothing was written.
+     */
+    private void finishWrite(PendingWrite write) {
+        if (write != null) {
+            write.written().handle((result, failure) -> null).join();
+            publish();
+            write.published().join();
+        }
+    }
+
+    /**
+     * Finishes every write, even after one of them failed, so none is left unpublished,
+     * and then throws the first failure.
+     */
+    private void finishWrites(List<PendingWrite> written) {
+        CompletionException failure = null;
+        for (PendingWrite write : written) {
+            try {
+                finishWrite(write);
+            } catch (CompletionException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Publishes the pending writes at the head of the queue whose journal records are done,
+     * in order. Every writer calls this once its own record is done, so the write at the
+     * head is always picked up; a writer that finds another thread publishing leaves its
+     * write to that thread.
+     */
+    private void publish() {
+        if (publishing.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            PendingWrite write;
+            while ((write = pending.peek()) != null && write.written().isDone()) {
+                pending.poll();
+                publish(write);
+            }
+            missed = publishing.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void publish(PendingWrite write) {
+        var previous = discarded.containsKey(write.customerId())
+                ? discarded.remove(write.customerId())
+                : write.previous();
+        try {
+            write.written().join();
+        } catch (CompletionException e) {
+            discard(write, previous);
+            write.published().completeExceptionally(e.getCause());
+            return;
+        }
+        try {
+            var before = contract(previous);
+            var after = contract(write.current());
+            events.record(before, after);
+            if (after != null && after.loanContractStatus() == ContractStatus.SENT
+                    && (before == null || before.loanContractStatus() != ContractStatus.SENT)) {
+                sentContractsWindow.record();
+            }
+            notifyListeners(before, after);
+            for (ContractChangeListener listener : listeners) {
+                listener.committed();
+            }
+            events.committed();
+        } catch (RuntimeException e) {
+            log.error("Publishing the change of contract {} failed.", write.customerId(), e);
+        }
+        write.published().complete(null);
+    }
+
+    /**
+     * Rolls a write whose journal record failed back to {@code previous}. When a later write
+     * of the customer already replaced it, that write stays and is published as a change
+     * from {@code previous}: its own record carries the whole contract.
+     */
+    private void discard(PendingWrite write, VersionedContract previous) {
+        var rolledBack = new boolean[1];
+        contracts.compute(write.customerId(), (customerId, stored) -> {
+            if (stored != write.current()) {
+                return stored;
+            }
+            unindex(contract(stored));
+            if (previous == null) {
+                customerIds.remove(customerId);
+            } else {
+                customerIds.add(customerId);
+                index(previous.contract());
+            }
+            version.incrementAndGet();
+            rolledBack[0] = true;
+            return previous;
+        });
+        if (!rolledBack[0]) {
+            discarded.put(write.customerId(), previous);
+        }
+        var cache = cachedContracts;
+        if (cache != null) {
+            cache.evict(write.customerId());
+        }
+    }
+
+    /**
+     * Moves index entries from {@code stored} to {@code current} and versions the result.
+     * Only called inside a compute on the customer's key, so a concurrent writer for the
+     * same customer can never leave stale index entries behind.
+     */
+    private VersionedContract swap(VersionedContract stored, LoanContractRequest current) {
+        if (stored == null) {
+            customerIds.add(current.customerId());
+        }
+        unindex(contract(stored));
+        index(current);
+        return new VersionedContract(current, version.incrementAndGet());
+    }
+
+    private VersionedContract evict(VersionedContract stored) {
+        var previous = stored.contract();
+        customerIds.remove(previous.customerId());
+        unindex(previous);
+        version.incrementAndGet();
+        return null;
+    }
+
+    private static LoanContractRequest contract(VersionedContract stored) {
+        return stored == null ? null : stored.contract();
+    }
+
+    private void notifyListeners(LoanContractRequest previous, LoanContractRequest current) {
+        for (ContractChangeListener listener : listeners) {
+            listener.changed(previous, current);
+        }
+    }
+
+    private void index(LoanContractRequest contract) {
+        statusIndex.add(contract.loanContractStatus(), contract.customerId());
+        loanTypeIndex.add(contract.loanType(), contract.customerId());
+        for (Approver approver : contract.approvers()) {
+            approverIndex.add(approver.username(), contract.customerId());
+        }
+    }
+
+    private void unindex(LoanContractRequest contract) {
+        if (contract == null) {
+            return;
+        }
+        statusIndex.remove(contract.loanContractStatus(), contract.customerId());
+        loanTypeIndex.remove(contract.loanType(), contract.customerId());
+        for (Approver approver : contract.approvers()) {
+            approverIndex.remove(approver.username(), contract.customerId());
+        }
+    }
+
+    private List<LoanContractRequest> resolve(Set<String> customerIds) {
+        List<LoanContractRequest> result = new ArrayList<>(customerIds.size());
+        for (String customerId : customerIds) {
+            var contract = contracts.get(customerId);
+            if (contract != null) {
+                result.add(contract.contract());
+            }
+        }
+        return result;
+    }
 
-        return approverStatistics;
+    /**
+     * A live write waiting for its journal record. {@code current} is {@code null} for a
+     * delete; {@code published} completes once the write is published or rolled back.
+     */
+    private record PendingWrite(String customerId, VersionedContract previous, VersionedContract current,
+                                CompletableFuture<?> written, CompletableFuture<Void> published) {
     }
 }
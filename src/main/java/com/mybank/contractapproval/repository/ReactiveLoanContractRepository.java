@@ -0,0 +1,49 @@
+package com.mybank.contractapproval.repository;
+
+import com.mybank.contractapproval.model.LoanContractRequest;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Non-blocking view of {@link LoanContractRepository} for the reactive API. Reads are
+ * in-memory and run on the subscribing thread. Mutations, made directly or through the
+ * services, wait for the journal when it is enabled, so they are moved off the event loop;
+ * without a journal they never block and run in place.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveLoanContractRepository {
+
+    private final LoanContractRepository repository;
+    private final Scheduler writeScheduler;
+
+    public ReactiveLoanContractRepository(LoanContractRepository repository) {
+        this.repository = repository;
+        this.writeScheduler = repository.isJournaled() ? Schedulers.boundedElastic() : Schedulers.immediate();
+    }
+
+    /**
+     * Streams all contracts in customer ID order, reading each one only when the subscriber
+     * asks for it.
+     */
+    public Flux<LoanContractRequest> streamAll() {
+        return Flux.fromStream(repository::streamAllContracts);
+    }
+
+    public Mono<LoanContractRequest> findById(String id) {
+        return Mono.fromSupplier(() -> repository.findById(id).orElse(null));
+    }
+
+    /**
+     * Runs a mutation on a thread that may block until it is durable.
+     */
+    public <T> Mono<T> write(Callable<T> mutation) {
+        return Mono.fromCallable(mutation).subscribeOn(writeScheduler);
+    }
+}
@@ -0,0 +1,13 @@
+package com.mybank.contractapproval.repository;
+
+import com.mybank.contractapproval.model.LoanContractRequest;
+
+/**
+ * A stored contract together with the repository version of the mutation that stored it.
+ * Versions only grow, so a different version always means a different state.
+ */
+public record VersionedContract(
+        LoanContractRequest contract,
+        long version
+) {
+}
@@ -0,0 +1,197 @@
+package com.mybank.contractapproval.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybank.contractapproval.config.CacheConfig;
+import com.mybank.contractapproval.model.BatchItemResult;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Creates contracts from a streamed request body holding either a JSON array or
+ * newline-delimited JSON objects. Items are read one at a time with Jackson's streaming
+ * parser, validated like the single create endpoint and inserted in chunks, so the body is
+ * never held in memory as a whole.
+ */
+@Service
+@Slf4j
+public class ContractBatchService {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private final LoanApprovalService loanApprovalService;
+    private final LoanContractRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final Cache contractsCache;
+    private final int chunkSize;
+
+    public ContractBatchService(LoanApprovalService loanApprovalService,
+                                LoanContractRepository repository,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                CacheManager cacheManager,
+                                @Value("${batch.chunk.size:" + DEFAULT_CHUNK_SIZE + "}") int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Batch chunk size must be positive");
+        }
+        this.loanApprovalService = loanApprovalService;
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.contractsCache = cacheManager.getCache(CacheConfig.CONTRACTS);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Returns one result per item, in body order. Malformed JSON ends the batch: items read
+     * before it are kept and the malformed position is reported as the last result. When
+     * reading the body fails, only the chunks already inserted are kept; the items read
+     * since are dropped, since their results could not reach the caller.
+     */
+    public List<BatchItemResult> create(InputStream body) throws IOException {
+        List<BatchItemResult> results = new ArrayList<>();
+        var chunk = new Chunk(chunkSize);
+
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            JsonToken token = nextToken(parser, results);
+            if (token == JsonToken.START_ARRAY) {
+                token = nextToken(parser, results);
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                int index = results.size();
+                JsonNode item;
+                try {
+                    item = parser.readValueAsTree();
+                } catch (JsonProcessingException e) {
+                    results.add(malformed(index, e));
+                    break;
+                }
+                results.add(null);
+                accept(index, item, chunk, results);
+                if (chunk.isFull()) {
+                    flush(chunk, results);
+                }
+                token = nextToken(parser, results);
+            }
+            flush(chunk, results);
+        }
+
+        log.info("Processed a batch of {} contracts.", results.size());
+        return results;
+    }
+
+    private void accept(int index, JsonNode item, Chunk chunk, List<BatchItemResult> results) {
+        LoanContractRequest cRequest;
+        try {
+            cRequest = objectMapper.treeToValue(item, LoanContractRequest.class);
+        } catch (JsonProcessingException e) {
+            results.set(index, BatchItemResult.rejected(index, item.path("customerId").asText(null),
+                    HttpStatus.BAD_REQUEST, e.getOriginalMessage()));
+            return;
+        }
+
+        String invalid = validate(cRequest);
+        if (invalid != null) {
+            results.set(index, BatchItemResult.rejected(index, cRequest.customerId(), HttpStatus.BAD_REQUEST, invalid));
+            return;
+        }
+
+        chunk.add(index, loanApprovalService.updateStatus(cRequest, ContractStatus.PENDING, ApprovalStatus.PENDING));
+    }
+
+    private String validate(LoanContractRequest cRequest) {
+        if (cRequest.customerId() == null) {
+            return "Customer ID is missing";
+        }
+        if (cRequest.approvers() == null) {
+            return "Approvers are missing";
+        }
+        var violations = validator.validate(cRequest);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void flush(Chunk chunk, List<BatchItemResult> results) {
+        if (chunk.contracts.isEmpty()) {
+            return;
+        }
+        boolean[] saved = repository.saveAllIfNoPending(chunk.contracts);
+        for (int i = 0; i < saved.length; i++) {
+            int index = chunk.indexes.get(i);
+            String customerId = chunk.contracts.get(i).customerId();
+            if (saved[i]) {
+                contractsCache.evict(customerId);
+                results.set(index, BatchItemResult.created(index, customerId));
+            } else {
+                results.set(index, BatchItemResult.rejected(index, customerId, HttpStatus.CONFLICT,
+                        "One pending contract is already active!"));
+            }
+        }
+        chunk.clear();
+    }
+
+    private static JsonToken nextToken(JsonParser parser, List<BatchItemResult> results) throws IOException {
+        try {
+            return parser.nextToken();
+        } catch (JsonProcessingException e) {
+            results.add(malformed(results.size(), e));
+            return null;
+        }
+    }
+
+    private static BatchItemResult malformed(int index, JsonProcessingException e) {
+        return BatchItemResult.rejected(index, null, HttpStatus.BAD_REQUEST, "Malformed JSON: " + e.getOriginalMessage());
+    }
+
+    private static final class Chunk {
+
+        private final int capacity;
+        private final List<Integer> indexes;
+        private final List<LoanContractRequest> contracts;
+
+        private Chunk(int capacity) {
+            this.capacity = capacity;
+            this.indexes = new ArrayList<>(capacity);
+            this.contracts = new ArrayList<>(capacity);
+        }
+
+        private void add(int index, LoanContractRequest contract) {
+            indexes.add(index);
+            contracts.add(contract);
+        }
+
+        private boolean isFull() {
+            return contracts.size() >= capacity;
+        }
+
+        private void clear() {
+            indexes.clear();
+            contracts.clear();
+        }
+    }
+}
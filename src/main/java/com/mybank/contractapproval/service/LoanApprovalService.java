@@ -1,28 +1,41 @@
 package com.mybank.contractapproval.service;
 
 import com.mybank.contractapproval.exceptions.ConflictException;
+import com.mybank.contractapproval.exceptions.InvalidDataException;
 import com.mybank.contractapproval.exceptions.NotFoundException;
+import com.mybank.contractapproval.jfr.DecisionEvent;
+import com.mybank.contractapproval.jfr.StatisticsEvent;
 import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.ApproverMask;
+import com.mybank.contractapproval.model.BatchItemResult;
+import com.mybank.contractapproval.model.ContractPage;
+import com.mybank.contractapproval.model.DecisionVote;
 import com.mybank.contractapproval.model.LoanContractRequest;
 import com.mybank.contractapproval.model.enums.ApprovalStatus;
 import com.mybank.contractapproval.model.enums.ContractStatus;
 import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
 import com.mybank.contractapproval.repository.LoanContractRepository;
+import com.mybank.contractapproval.repository.VersionedContract;
+import com.mybank.contractapproval.statistics.ColumnSummary;
+import com.mybank.contractapproval.statistics.ContractColumns;
+import com.mybank.contractapproval.statistics.ContractStatisticsDTO;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 @Slf4j
@@ -33,29 +46,124 @@ public class LoanApprovalService {
     @Autowired
     public LoanContractRepository repository;
 
-    private static final String MSG = "Customer not found!";
+    @Autowired(required = false)
+    private ContractColumns columns;
+
+    private static final String NOT_APPROVED_YET = "Not approved yet";
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final LongAdder optimisticRetries = new LongAdder();
 
     public List<LoanContractRequest> findAll(){
         log.info("Fetching all loan contracts.");
-        return repository.loanContractRequestList;
+        return repository.findAllContracts();
+    }
+
+    public ContractStatisticsDTO getStatistics(int minutes) {
+        var event = new StatisticsEvent();
+        event.begin();
+        var approverStatistics = repository.calculateApproverStatistics();
+        var statistics = new ContractStatisticsDTO(
+                repository.countContractsByStatus(ContractStatus.PENDING),
+                repository.countContractsByStatus(ContractStatus.SENT),
+                repository.countSentContracts(minutes),
+                repository.calculateSumOfLoanAmounts(), repository.calculateAverageLoanAmount(),
+                repository.findMaxLoanAmount(), repository.findMinLoanAmount(),
+                approverStatistics);
+        event.end();
+        if (event.shouldCommit()) {
+            event.minutes = minutes;
+            event.contracts = repository.count();
+            event.approvers = approverStatistics.size();
+            event.commit();
+        }
+        return statistics;
+    }
+
+    /**
+     * Summarizes the loan amounts of contracts matching every given filter; {@code null}
+     * matches anything. Scans the primitive columns when {@code statistics.columns.enabled}
+     * is set, otherwise the narrowest index the filters allow.
+     */
+    public ColumnSummary summarizeLoans(ContractStatus status, LoanType loanType, Managers approver) {
+        if (columns != null) {
+            return columns.summarize(status, loanType, approver);
+        }
+        List<LoanContractRequest> candidates;
+        if (status != null) {
+            candidates = repository.findByStatus(status);
+        } else if (loanType != null) {
+            candidates = repository.findByLoanType(loanType);
+        } else if (approver != null) {
+            candidates = repository.findByApprover(approver);
+        } else {
+            candidates = repository.findAllContracts();
+        }
+        var amounts = candidates.stream()
+                .filter(contract -> contract.loanAmount() != null)
+                .filter(contract -> status == null || contract.loanContractStatus() == status)
+                .filter(contract -> loanType == null || contract.loanType() == loanType)
+                .filter(contract -> approver == null || contract.approvers().stream()
+                        .anyMatch(candidate -> candidate.username() == approver))
+                .mapToLong(contract -> Math.round(contract.loanAmount() * 100))
+                .summaryStatistics();
+        return ColumnSummary.ofCents(amounts.getCount(), amounts.getSum(), amounts.getMin(), amounts.getMax());
+    }
+
+    /**
+     * Returns the page of contracts following the {@code after} cursor. One extra contract is
+     * read to tell whether another page exists.
+     */
+    public ContractPage findPage(String after, int limit) throws InvalidDataException {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidDataException("Page limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        log.info("Fetching {} loan contracts after {}.", limit, after);
+
+        var contracts = repository.findPage(after, limit + 1);
+        if (contracts.size() <= limit) {
+            return new ContractPage(contracts, null);
+        }
+        var page = contracts.subList(0, limit);
+        return new ContractPage(List.copyOf(page), page.get(limit - 1).customerId());
     }
 
     public Optional<LoanContractRequest> findById (String customerId) {
         log.info("Fetching customer by ID: {}", customerId);
-        return repository.loanContractRequestList
-                .stream().filter(loanContractRequest -> loanContractRequest.customerId().equals(customerId)).findFirst();
+        return repository.findById(customerId);
+    }
+
+    /**
+     * Creates a pending contract, or fails if the customer already has one pending. The
+     * conflict check and the insert happen atomically in the repository.
+     */
+    public LoanContractRequest create(LoanContractRequest cRequest) throws ConflictException {
+        var contract = updateStatus(cRequest, ContractStatus.PENDING, ApprovalStatus.PENDING);
+
+        if (!repository.saveIfNoPending(contract)) {
+            throw new ConflictException("One pending contract is already active!");
+        }
+
+        return contract;
     }
 
     public LoanContractRequest contractStatusUpdate(LoanContractRequest cRequest,
                                                            ContractStatus contractStatus) {
+        return contractStatusUpdate(cRequest, cRequest.approvers(), contractStatus,
+                checkSentToCustomerDate(cRequest));
+    }
+
+    private static LoanContractRequest contractStatusUpdate(LoanContractRequest cRequest, List<Approver> approvers,
+                                                            ContractStatus contractStatus, String sentToCustomerDate) {
         return new LoanContractRequest(
                 cRequest.customerId(),
                 cRequest.loanAmount(),
-                cRequest.approvers(),
+                approvers,
                 cRequest.loanType(),
                 contractStatus,
                 cRequest.createdDate(),
-                checkSentToCustomerDate(cRequest)
+                sentToCustomerDate
         );
     }
 
@@ -74,10 +182,14 @@ public class LoanApprovalService {
     }
 
     public String checkSentToCustomerDate(LoanContractRequest cRequest) {
-        if (areAllApprovalsCollected(cRequest) && hasSufficientApprovals(cRequest))
+        return checkSentToCustomerDate(ApproverMask.isApproved(ApproverMask.of(cRequest.approvers()), cRequest.loanType()));
+    }
+
+    private static String checkSentToCustomerDate(boolean approved) {
+        if (approved)
             return LocalDateTime.now().toString();
 
-        return "Not approved yet";
+        return NOT_APPROVED_YET;
     }
 
     public static List<Approver> approverStatusToPending(List<Approver> approvers,
@@ -87,108 +199,205 @@ public class LoanApprovalService {
                 .toList();
     }
 
-    public LoanContractRequest getUpdatedContractRequest(LoanContractRequest updatedRequest,
-                                                              LoanContractRequest existingRequest,
-                                                              int approverIndex) {
-        var updatedApprovers = new ArrayList<>(existingRequest.approvers());
-        updatedApprovers.set(approverIndex, updatedRequest.approvers().get(0));
-
-        return new LoanContractRequest(
-                existingRequest.customerId(),
-                existingRequest.loanAmount(),
-                updatedApprovers,
-                existingRequest.loanType(),
-                existingRequest.loanContractStatus(),
-                existingRequest.createdDate(),
-                existingRequest.sentToCustomerDate()
-        );
+    /**
+     * Applies an approver's vote and re-evaluates the contract status, retrying until no
+     * concurrent vote on the same contract got in between, so no vote is ever lost.
+     */
+    public LoanContractRequest decide(LoanContractRequest updatedRequest)
+            throws NotFoundException, InvalidDataException {
+        try {
+            return decide(updatedRequest, null).contract();
+        } catch (ConflictException e) {
+            throw new IllegalStateException("Unconditional decision cannot conflict", e);
+        }
     }
 
-    public void makeDecision(LoanContractRequest updatedRequest) {
-        var existingRequest = findById(updatedRequest.customerId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, MSG));
-
-        if (findApproverIndex(existingRequest, updatedRequest) != -1) {
-            var updatedContractRequest = getUpdatedContractRequest(
-                    updatedRequest, existingRequest, findApproverIndex(existingRequest, updatedRequest));
+    /**
+     * Applies an approver's vote with optimistic concurrency: the vote is built from the
+     * stored contract and compare-and-set against the version it was read at. With an
+     * {@code expectedVersion} (from {@code If-Match}) any other version is a conflict;
+     * without one a lost race is simply retried against the newer contract.
+     */
+    public VersionedContract decide(LoanContractRequest updatedRequest, Long expectedVersion)
+            throws NotFoundException, InvalidDataException, ConflictException {
+        if (updatedRequest.approvers() == null || updatedRequest.approvers().isEmpty()) {
+            throw new InvalidDataException("Approver decision is missing");
+        }
 
-            repository.replace(updatedContractRequest);
+        var event = new DecisionEvent();
+        event.begin();
+        int retries = 0;
+        while (true) {
+            var stored = repository.findVersionedById(updatedRequest.customerId())
+                    .orElseThrow(() -> new NotFoundException("Customer '" + updatedRequest.customerId() + "' not found"));
+            if (expectedVersion != null && stored.version() != expectedVersion) {
+                throw new ConflictException("Contract has changed since version " + expectedVersion);
+            }
 
-            } else {
+            int approverIndex = findApproverIndex(stored.contract(), updatedRequest);
+            if (approverIndex == -1) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Approver not found!");
+            }
 
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Approver not found!");
+            var decided = evaluateContractStatus(stored.contract(),
+                    withVote(stored.contract().approvers(), approverIndex, updatedRequest.approvers().get(0)));
+            var current = repository.replaceIfVersion(decided, stored.version());
+            if (current.isPresent() && current.get().contract() == decided) {
+                commit(event, "decide", updatedRequest.approvers().get(0).username(), decided,
+                        approverIndex + 1, retries);
+                return current.get();
+            }
+            retries++;
+            optimisticRetries.increment();
         }
     }
 
-    private int findApproverIndex(LoanContractRequest existingRequest, LoanContractRequest updatedRequest) {
-        for (int i = 0; i < existingRequest.approvers().size(); i++) {
-            if (existingRequest.approvers().get(i).username().equals(updatedRequest.approvers().get(0).username())) {
-
-                return i;
-            }
+    /**
+     * Deletes the contract, only if it is still at {@code expectedVersion} when one is given.
+     */
+    public void delete(String customerId, Long expectedVersion) throws NotFoundException, ConflictException {
+        if (expectedVersion == null) {
+            notFoundException(customerId);
+            repository.deleteById(customerId);
+            return;
+        }
+        if (!repository.deleteIfVersion(customerId, expectedVersion)) {
+            notFoundException(customerId);
+            throw new ConflictException("Contract has changed since version " + expectedVersion);
         }
-
-        return -1;
     }
 
-    private boolean areAllApprovalsCollected(LoanContractRequest request) {
-        return request.approvers().stream()
-                .allMatch(approver -> approver.status() == ApprovalStatus.APPROVED);
+    /**
+     * Number of times a decision lost a race to a concurrent vote and was retried.
+     */
+    public long optimisticRetries() {
+        return optimisticRetries.sum();
     }
 
-    public boolean hasSufficientApprovals(LoanContractRequest request) {
-        if (request.loanType() == LoanType.GENERAL) {
+    /**
+     * Applies many approver votes, grouped by contract: each contract gets all of its votes
+     * and one status re-evaluation in a single atomic repository update. Returns one result
+     * per vote, in input order, with the status the single decision endpoint would have
+     * returned for it. A contract none of whose votes applied is left untouched.
+     */
+    public List<BatchItemResult> decideAll(List<DecisionVote> votes) {
+        var results = new BatchItemResult[votes.size()];
+        Map<String, List<Integer>> votesByContract = new LinkedHashMap<>();
+        for (int i = 0; i < votes.size(); i++) {
+            var vote = votes.get(i);
+            if (vote == null || vote.customerId() == null || vote.username() == null || vote.status() == null) {
+                results[i] = BatchItemResult.rejected(i, vote == null ? null : vote.customerId(),
+                        HttpStatus.BAD_REQUEST, "Approver decision is missing");
+            } else {
+                votesByContract.computeIfAbsent(vote.customerId(), customerId -> new ArrayList<>()).add(i);
+            }
+        }
 
-            return !request.approvers().isEmpty();
+        votesByContract.forEach((customerId, indexes) -> {
+            var event = new DecisionEvent();
+            event.begin();
+            var updated = repository.update(customerId, existingRequest -> {
+                var approvers = applyVotes(existingRequest, votes, indexes, results);
+                return approvers == null ? existingRequest : evaluateContractStatus(existingRequest, approvers);
+            });
+            if (updated.isPresent()) {
+                var approver = indexes.size() == 1 ? votes.get(indexes.get(0)).username() : null;
+                commit(event, "decideAll", approver, updated.get(), 0, 0);
+            } else {
+                for (int index : indexes) {
+                    results[index] = BatchItemResult.rejected(index, customerId, HttpStatus.NOT_FOUND,
+                            "Customer '" + customerId + "' not found");
+                }
+            }
+        });
 
-        } else if (request.loanType() == LoanType.MORTGAGE) {
+        log.info("Applied {} approver decisions to {} contracts.", votes.size(), votesByContract.size());
+        return Arrays.asList(results);
+    }
 
-            return request.approvers().size() >= 2;
+    /**
+     * Returns the approvers with the applicable votes applied, or {@code null} if none of
+     * them named an approver of the contract.
+     */
+    private List<Approver> applyVotes(LoanContractRequest existingRequest, List<DecisionVote> votes,
+                                      List<Integer> indexes, BatchItemResult[] results) {
+        var updatedApprovers = new ArrayList<>(existingRequest.approvers());
+        boolean applied = false;
+        for (int index : indexes) {
+            var vote = votes.get(index);
+            int approverIndex = findApproverIndex(updatedApprovers, vote.username());
+            if (approverIndex == -1) {
+                results[index] = BatchItemResult.rejected(index, vote.customerId(), HttpStatus.NOT_FOUND,
+                        "Approver not found!");
+            } else {
+                updatedApprovers.set(approverIndex, new Approver(vote.username(), vote.status()));
+                results[index] = BatchItemResult.decided(index, vote.customerId());
+                applied = true;
+            }
+        }
 
-        } else return false;
+        return applied ? updatedApprovers : null;
     }
 
-    public void makeDecisionOnContract(LoanContractRequest updatedRequest) {
-        if (areAllApprovalsCollected(updatedRequest) && hasSufficientApprovals(updatedRequest)) {
+    private static List<Approver> withVote(List<Approver> approvers, int approverIndex, Approver vote) {
+        var updatedApprovers = new ArrayList<>(approvers);
+        updatedApprovers.set(approverIndex, vote);
+        return updatedApprovers;
+    }
 
-            repository.replace(contractStatusUpdate(updatedRequest, ContractStatus.SENT));
+    private int findApproverIndex(List<Approver> approvers, Managers username) {
+        for (int i = 0; i < approvers.size(); i++) {
+            if (approvers.get(i).username() == username) {
+                return i;
+            }
         }
 
-        else repository.replace(contractStatusUpdate(updatedRequest, ContractStatus.PENDING));
+        return -1;
     }
 
-    public LoanContractRequest populateMissingFields(LoanContractRequest inputRequest) {
-        var existingRequest = findById(inputRequest.customerId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, MSG));
+    private int findApproverIndex(LoanContractRequest existingRequest, LoanContractRequest updatedRequest) {
+        for (int i = 0; i < existingRequest.approvers().size(); i++) {
+            if (existingRequest.approvers().get(i).username().equals(updatedRequest.approvers().get(0).username())) {
 
-        return new LoanContractRequest(
-                inputRequest.customerId(),
-                existingRequest.loanAmount(),
-                existingRequest.approvers(),
-                existingRequest.loanType(),
-                existingRequest.loanContractStatus(),
-                existingRequest.createdDate(),
-                existingRequest.sentToCustomerDate()
-        );
+                return i;
+            }
+        }
+
+        return -1;
     }
 
-    public static long countContractsByStatus(List<LoanContractRequest> contracts,
-                                              ContractStatus status) {
-        return contracts.stream()
-                .filter(contract -> contract.loanContractStatus() == status)
-                .count();
+    public boolean hasSufficientApprovals(LoanContractRequest request) {
+        return ApproverMask.hasSufficientApprovers(ApproverMask.of(request.approvers()), request.loanType());
     }
 
-    public void conflictException(LoanContractRequest cRequest) throws ConflictException {
-        if (repository.statusContractPending(cRequest)) {
-            throw new ConflictException("One pending contract is already active!");
+    private static void commit(DecisionEvent event, String stage, Managers approver,
+                               LoanContractRequest decided, int approversScanned, int retries) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.stage = stage;
+            event.customerId = decided.customerId();
+            event.approver = approver == null ? null : approver.name();
+            event.loanType = String.valueOf(decided.loanType());
+            event.contractStatus = String.valueOf(decided.loanContractStatus());
+            event.approversScanned = approversScanned;
+            event.retries = retries;
+            event.commit();
         }
     }
 
-    public void notFoundException(LoanContractRequest updatedRequest) throws NotFoundException {
-        if (!repository.existsById(updatedRequest.customerId())) {
-            throw new NotFoundException("Customer '" + updatedRequest.customerId() + "' not found");
-        }
+    /**
+     * Builds the contract with {@code approvers} and the status they lead to. The approval
+     * check itself does not allocate. A contract that was already sent and stays approved
+     * keeps the date it was sent on.
+     */
+    private static LoanContractRequest evaluateContractStatus(LoanContractRequest cRequest, List<Approver> approvers) {
+        boolean approved = ApproverMask.isApproved(ApproverMask.of(approvers), cRequest.loanType());
+        var sentToCustomerDate = approved && cRequest.loanContractStatus() == ContractStatus.SENT
+                && cRequest.sentToCustomerDate() != null
+                ? cRequest.sentToCustomerDate()
+                : checkSentToCustomerDate(approved);
+        return contractStatusUpdate(cRequest, approvers, approved ? ContractStatus.SENT : ContractStatus.PENDING,
+                sentToCustomerDate);
     }
 
     public void notFoundException(String id) throws NotFoundException {
@@ -196,10 +405,4 @@ public class LoanApprovalService {
             throw new NotFoundException("Customer '" + id + "' not found");
         }
     }
-
-    @CacheEvict(value = "data", allEntries = true)
-    @Scheduled(fixedRateString = "${cache.update.time}", timeUnit = TimeUnit.MINUTES)
-    public void emptyCache() {
-        log.info("Emptying cache");
-    }
 }
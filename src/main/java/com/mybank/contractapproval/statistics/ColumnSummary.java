@@ -0,0 +1,26 @@
+package com.mybank.contractapproval.statistics;
+
+/**
+ * Loan amount totals over the contracts matching a status, loan type and approver filter. All
+ * amounts are 0.0 when nothing matches.
+ */
+public record ColumnSummary(
+        long count,
+        double sum,
+        double average,
+        double min,
+        double max
+) {
+
+    /**
+     * @param sum total of the matching amounts in cents; {@code min} and {@code max} are
+     *            ignored when {@code count} is 0
+     */
+    public static ColumnSummary ofCents(long count, long sum, long min, long max) {
+        if (count == 0) {
+            return new ColumnSummary(0, 0.0, 0.0, 0.0, 0.0);
+        }
+        return new ColumnSummary(count, sum / 100.0, Math.round((double) sum / count) / 100.0,
+                min / 100.0, max / 100.0);
+    }
+}
@@ -0,0 +1,267 @@
+package com.mybank.contractapproval.statistics;
+
+import com.mybank.contractapproval.events.ContractEvent;
+import com.mybank.contractapproval.events.ContractProjection;
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Column-oriented mirror of the stored contracts for filtered loan amount scans. Each
+ * contract owns one slot across primitive arrays: amount in cents, status and loan type
+ * codes, and one bit per approver for "assigned" and "approved". A scan walks these arrays
+ * front to back instead of unboxing amounts from scattered contract records.
+ *
+ * <p>Events are only queued by {@link #apply}, so publishing repository changes never waits
+ * behind a scan. Whoever takes the exclusive lock next, the publishing thread once a write
+ * is committed or a scan about to run, applies the queued events in order. Slots of
+ * deleted contracts are reused. Scans run optimistically and fall back to a read lock when a
+ * write got in between.
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.columns.enabled", havingValue = "true")
+public class ContractColumns implements ContractProjection {
+
+    private static final byte EMPTY = -1;
+    private static final long NO_AMOUNT = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final Managers[] MANAGERS = Managers.values();
+
+    private final Queue<ContractEvent> pending = new ConcurrentLinkedQueue<>();
+    private final StampedLock lock = new StampedLock();
+    private final Map<String, Integer> slots = new HashMap<>();
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int size;
+
+    private long[] amountCents = filled(new long[INITIAL_CAPACITY], NO_AMOUNT);
+    private byte[] statuses = filled(INITIAL_CAPACITY);
+    private byte[] loanTypes = filled(INITIAL_CAPACITY);
+    private long[][] assigned = new long[MANAGERS.length][INITIAL_CAPACITY / 64];
+    private long[][] approved = new long[MANAGERS.length][INITIAL_CAPACITY / 64];
+
+    @Override
+    public void apply(ContractEvent event) {
+        pending.add(event);
+    }
+
+    /**
+     * Applies the queued events unless another thread is already applying them; that thread
+     * or the next scan picks up whatever it leaves behind.
+     */
+    @Override
+    public void committed() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long stamp = lock.tryWriteLock();
+        if (stamp != 0) {
+            try {
+                applyPending();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Summarizes contracts matching every given filter; {@code null} matches anything.
+     *
+     * @param approver only contracts this manager is an approver of
+     */
+    public ColumnSummary summarize(ContractStatus status, LoanType loanType, Managers approver) {
+        catchUp();
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            var summary = scan(status, loanType, approver);
+            if (lock.validate(stamp)) {
+                return summary;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return scan(status, loanType, approver);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public ColumnSummary summarize() {
+        return summarize(null, null, null);
+    }
+
+    /**
+     * Applies every event queued before the call, so a scan sees the caller's own writes.
+     */
+    private void catchUp() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            applyPending();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void applyPending() {
+        ContractEvent event;
+        while ((event = pending.poll()) != null) {
+            write(event);
+        }
+    }
+
+    private void write(ContractEvent event) {
+        if (event instanceof ContractEvent.Created created) {
+            write(allocate(created.customerId()), created.contract());
+            return;
+        }
+        Integer slot = slots.get(event.customerId());
+        if (slot == null) {
+            return;
+        }
+        if (event instanceof ContractEvent.Revised revised) {
+            write(slot, revised.contract());
+        } else if (event instanceof ContractEvent.Deleted) {
+            release(event.customerId(), slot);
+        } else if (event instanceof ContractEvent.StatusChanged changed) {
+            statuses[slot] = code(changed.status());
+        } else if (event instanceof ContractEvent.ApproverVoted voted && voted.approver() != null) {
+            setBit(approved[voted.approver().ordinal()], slot, voted.status() == ApprovalStatus.APPROVED);
+        }
+    }
+
+    /**
+     * Reads each array field once, so an optimistic scan racing a resize stays within the
+     * bounds of the arrays it started with; {@link StampedLock#validate} then rejects it.
+     */
+    private ColumnSummary scan(ContractStatus status, LoanType loanType, Managers approver) {
+        var amounts = amountCents;
+        var statusCodes = statuses;
+        var loanTypeCodes = loanTypes;
+        var approverBits = approver == null ? null : assigned[approver.ordinal()];
+        int end = Math.min(size, Math.min(amounts.length, Math.min(statusCodes.length, loanTypeCodes.length)));
+        if (approverBits != null) {
+            end = Math.min(end, approverBits.length * 64);
+        }
+        byte statusFilter = status == null ? EMPTY : code(status);
+        byte loanTypeFilter = loanType == null ? EMPTY : code(loanType);
+
+        long count = 0;
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int slot = 0; slot < end; slot++) {
+            long amount = amounts[slot];
+            if (amount == NO_AMOUNT
+                    || statusFilter != EMPTY && statusCodes[slot] != statusFilter
+                    || loanTypeFilter != EMPTY && loanTypeCodes[slot] != loanTypeFilter
+                    || approverBits != null && !isSet(approverBits, slot)) {
+                continue;
+            }
+            count++;
+            sum += amount;
+            min = Math.min(min, amount);
+            max = Math.max(max, amount);
+        }
+        return ColumnSummary.ofCents(count, sum, min, max);
+    }
+
+    private int allocate(String customerId) {
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : size++;
+        if (slot >= amountCents.length) {
+            grow(amountCents.length * 2);
+        }
+        slots.put(customerId, slot);
+        return slot;
+    }
+
+    private void release(String customerId, int slot) {
+        slots.remove(customerId);
+        clear(slot);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void write(int slot, LoanContractRequest contract) {
+        clear(slot);
+        amountCents[slot] = contract.loanAmount() == null ? NO_AMOUNT : Math.round(contract.loanAmount() * 100);
+        statuses[slot] = code(contract.loanContractStatus());
+        loanTypes[slot] = code(contract.loanType());
+        for (Approver approver : contract.approvers()) {
+            if (approver.username() != null) {
+                setBit(assigned[approver.username().ordinal()], slot, true);
+                setBit(approved[approver.username().ordinal()], slot, approver.status() == ApprovalStatus.APPROVED);
+            }
+        }
+    }
+
+    private void clear(int slot) {
+        amountCents[slot] = NO_AMOUNT;
+        statuses[slot] = EMPTY;
+        loanTypes[slot] = EMPTY;
+        for (int manager = 0; manager < MANAGERS.length; manager++) {
+            setBit(assigned[manager], slot, false);
+            setBit(approved[manager], slot, false);
+        }
+    }
+
+    private void grow(int capacity) {
+        int oldCapacity = amountCents.length;
+        var amounts = Arrays.copyOf(amountCents, capacity);
+        Arrays.fill(amounts, oldCapacity, capacity, NO_AMOUNT);
+        amountCents = amounts;
+        var statusCodes = Arrays.copyOf(statuses, capacity);
+        Arrays.fill(statusCodes, oldCapacity, capacity, EMPTY);
+        statuses = statusCodes;
+        var loanTypeCodes = Arrays.copyOf(loanTypes, capacity);
+        Arrays.fill(loanTypeCodes, oldCapacity, capacity, EMPTY);
+        loanTypes = loanTypeCodes;
+        for (int manager = 0; manager < MANAGERS.length; manager++) {
+            assigned[manager] = Arrays.copyOf(assigned[manager], capacity / 64);
+            approved[manager] = Arrays.copyOf(approved[manager], capacity / 64);
+        }
+    }
+
+    private static byte code(Enum<?> value) {
+        return value == null ? EMPTY : (byte) value.ordinal();
+    }
+
+    private static boolean isSet(long[] bits, int slot) {
+        return (bits[slot >>> 6] & 1L << slot) != 0;
+    }
+
+    private static void setBit(long[] bits, int slot, boolean value) {
+        if (value) {
+            bits[slot >>> 6] |= 1L << slot;
+        } else {
+            bits[slot >>> 6] &= ~(1L << slot);
+        }
+    }
+
+    private static byte[] filled(int capacity) {
+        var codes = new byte[capacity];
+        Arrays.fill(codes, EMPTY);
+        return codes;
+    }
+
+    private static long[] filled(long[] values, long value) {
+        Arrays.fill(values, value);
+        return values;
+    }
+}
@@ -0,0 +1,139 @@
+package com.mybank.contractapproval.statistics;
+
+import com.mybank.contractapproval.events.ContractEvent;
+import com.mybank.contractapproval.events.ContractProjection;
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.Managers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running loan amount and approval totals, projected from contract events so the
+ * statistics endpoint never has to walk the stored contracts.
+ *
+ * <p>Amounts are kept in cents, which is exact for the two decimals the API accepts.
+ * Min and max come from a multiset of amounts, so they stay correct after deletes.
+ */
+public class ContractStatisticsAggregate implements ContractProjection {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumCents = new LongAdder();
+    private final ConcurrentNavigableMap<Long, Long> amountCounts = new ConcurrentSkipListMap<>();
+    private final AtomicLongArray approvals = new AtomicLongArray(Managers.values().length);
+
+    /**
+     * Replaces the contribution of {@code previous} with that of {@code current}; either
+     * may be {@code null} for an insert or a delete.
+     */
+    public void apply(LoanContractRequest previous, LoanContractRequest current) {
+        if (previous != null) {
+            remove(previous);
+        }
+        if (current != null) {
+            add(current);
+        }
+    }
+
+    @Override
+    public void apply(ContractEvent event) {
+        if (event instanceof ContractEvent.Created created) {
+            apply(null, created.contract());
+        } else if (event instanceof ContractEvent.Revised revised) {
+            apply(revised.previous(), revised.contract());
+        } else if (event instanceof ContractEvent.Deleted deleted) {
+            apply(deleted.contract(), null);
+        } else if (event instanceof ContractEvent.ApproverVoted voted && voted.approver() != null) {
+            if (voted.previous() == ApprovalStatus.APPROVED) {
+                approvals.decrementAndGet(voted.approver().ordinal());
+            }
+            if (voted.status() == ApprovalStatus.APPROVED) {
+                approvals.incrementAndGet(voted.approver().ordinal());
+            }
+        }
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public double sum() {
+        return sumCents.sum() / 100.0;
+    }
+
+    public double average() {
+        long contracts = count.sum();
+        if (contracts == 0) {
+            return 0.0;
+        }
+        return Math.round((double) sumCents.sum() / contracts) / 100.0;
+    }
+
+    public double max() {
+        Map.Entry<Long, Long> last = amountCounts.lastEntry();
+        return last == null ? 0.0 : last.getKey() / 100.0;
+    }
+
+    public double min() {
+        Map.Entry<Long, Long> first = amountCounts.firstEntry();
+        return first == null ? 0.0 : first.getKey() / 100.0;
+    }
+
+    public long approvals(Managers manager) {
+        return approvals.get(manager.ordinal());
+    }
+
+    public List<ApproverStatistics> approverStatistics() {
+        List<ApproverStatistics> approverStatistics = new ArrayList<>();
+        for (Managers manager : Managers.values()) {
+            long approved = approvals(manager);
+            if (approved > 0) {
+                approverStatistics.add(new ApproverStatistics(manager.toString(), approved));
+            }
+        }
+
+        approverStatistics.sort(Comparator.comparing(ApproverStatistics::getNumberOfApprovals).reversed());
+
+        return approverStatistics;
+    }
+
+    private void add(LoanContractRequest contract) {
+        if (contract.loanAmount() != null) {
+            long cents = toCents(contract.loanAmount());
+            count.increment();
+            sumCents.add(cents);
+            amountCounts.merge(cents, 1L, Long::sum);
+        }
+        countApprovals(contract, 1);
+    }
+
+    private void remove(LoanContractRequest contract) {
+        if (contract.loanAmount() != null) {
+            long cents = toCents(contract.loanAmount());
+            count.decrement();
+            sumCents.add(-cents);
+            amountCounts.computeIfPresent(cents, (amount, occurrences) -> occurrences == 1 ? null : occurrences - 1);
+        }
+        countApprovals(contract, -1);
+    }
+
+    private void countApprovals(LoanContractRequest contract, int delta) {
+        for (Approver approver : contract.approvers()) {
+            if (approver.username() != null && approver.status() == ApprovalStatus.APPROVED) {
+                approvals.addAndGet(approver.username().ordinal(), delta);
+            }
+        }
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+}
@@ -0,0 +1,96 @@
+package com.mybank.contractapproval.statistics;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Ring buffers of one-second and one-minute buckets counting contracts that moved to SENT.
+ * Any window up to the configured horizon is answered by summing buckets, independent of
+ * how many contracts are stored: whole minutes come from the minute buckets and only the
+ * partial minutes at either end of the window (at most 60 seconds together) are read from
+ * the second buckets.
+ *
+ * <p>Each bucket packs the epoch second or minute it belongs to (high 32 bits) and its
+ * count (low 32 bits) into one long, so recording and lazily recycling a stale bucket is a
+ * single CAS.
+ */
+public class SentContractsWindow {
+
+    private static final long COUNT_MASK = 0xFFFF_FFFFL;
+
+    private final int horizonSeconds;
+    private final AtomicLongArray seconds;
+    private final AtomicLongArray minutes;
+    private final LongSupplier clock;
+
+    public SentContractsWindow(int horizonMinutes) {
+        this(horizonMinutes, () -> Instant.now().getEpochSecond());
+    }
+
+    public SentContractsWindow(int horizonMinutes, LongSupplier epochSecondClock) {
+        if (horizonMinutes <= 0) {
+            throw new IllegalArgumentException("Horizon must be at least one minute");
+        }
+        this.horizonSeconds = horizonMinutes * 60;
+        this.seconds = new AtomicLongArray(horizonSeconds);
+        this.minutes = new AtomicLongArray(horizonMinutes);
+        this.clock = epochSecondClock;
+    }
+
+    public void record() {
+        long second = clock.getAsLong();
+        increment(seconds, second);
+        increment(minutes, Math.floorDiv(second, 60));
+    }
+
+    /**
+     * Counts transitions recorded in the last {@code minutes}, capped at the horizon.
+     */
+    public long count(int minutes) {
+        long now = clock.getAsLong();
+        long window = Math.min((long) Math.max(minutes, 0) * 60, horizonSeconds);
+        if (window == 0) {
+            return 0;
+        }
+        long from = now - window + 1;
+        long firstWholeMinute = Math.floorDiv(from + 59, 60);
+        long currentMinute = Math.floorDiv(now, 60);
+
+        return sum(seconds, from, firstWholeMinute * 60)
+                + sum(this.minutes, firstWholeMinute, currentMinute)
+                + sum(seconds, currentMinute * 60, now + 1);
+    }
+
+    public int horizonMinutes() {
+        return horizonSeconds / 60;
+    }
+
+    private static void increment(AtomicLongArray buckets, long key) {
+        int slot = slot(buckets, key);
+        long current;
+        long updated;
+        do {
+            current = buckets.get(slot);
+            updated = (current >>> 32) == key ? current + 1 : key << 32 | 1;
+        } while (!buckets.compareAndSet(slot, current, updated));
+    }
+
+    /**
+     * Sums the buckets for keys in {@code [from, to)} that still hold their own key.
+     */
+    private static long sum(AtomicLongArray buckets, long from, long to) {
+        long total = 0;
+        for (long key = from; key < to; key++) {
+            long bucket = buckets.get(slot(buckets, key));
+            if ((bucket >>> 32) == key) {
+                total += bucket & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+
+    private static int slot(AtomicLongArray buckets, long key) {
+        return (int) Math.floorMod(key, (long) buckets.length());
+    }
+}
@@ -0,0 +1,31 @@
+package com.mybank.contractapproval.cache;
+
+import com.mybank.contractapproval.exceptions.ConflictException;
+import com.mybank.contractapproval.exceptions.InvalidDataException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractETagsTest {
+
+    private final ContractETags eTags = new ContractETags();
+
+    @Test
+    void expectedVersionReadsBackContractTags() throws ConflictException, InvalidDataException {
+        assertEquals(42L, eTags.expectedVersion(eTags.contract(42)));
+        assertEquals(42L, eTags.expectedVersion(" " + eTags.contract(42) + " "));
+        assertEquals(42L, eTags.expectedVersion(ContractETags.gzip(eTags.contract(42))));
+        assertNull(eTags.expectedVersion(null));
+        assertNull(eTags.expectedVersion(""));
+        assertNull(eTags.expectedVersion("*"));
+    }
+
+    @Test
+    void tagsThatCannotMatchAreConflicts() {
+        assertThrows(ConflictException.class, () -> eTags.expectedVersion("W/" + eTags.contract(42)));
+        assertThrows(ConflictException.class, () -> eTags.expectedVersion(new ContractETags().contract(42)));
+        assertThrows(ConflictException.class, () -> eTags.expectedVersion(eTags.statistics(42, 5, 0)));
+        assertThrows(InvalidDataException.class, () ->
+                eTags.expectedVersion(eTags.contract(41) + ", " + eTags.contract(42)));
+    }
+}
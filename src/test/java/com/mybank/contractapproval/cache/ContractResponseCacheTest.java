@@ -0,0 +1,117 @@
+package com.mybank.contractapproval.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import com.mybank.contractapproval.service.LoanApprovalService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private LoanContractRepository repository;
+    private LoanApprovalService loanApprovalService;
+
+    @BeforeEach
+    void setUp() {
+        repository = new LoanContractRepository();
+        loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
+        repository.save(new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
+                ),
+                LoanType.GENERAL,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        ));
+    }
+
+    @Test
+    void encodesContractAsJson() throws IOException {
+        var cache = new ContractResponseCache(loanApprovalService, repository, new ContractETags(), objectMapper, Integer.MAX_VALUE);
+
+        var response = cache.contract("1-123-12345G");
+
+        assertNull(response.gzip());
+        assertEquals(repository.findById("1-123-12345G").orElseThrow(),
+                objectMapper.readValue(response.json(), LoanContractRequest.class));
+        assertEquals(response.etag().length() + response.json().length, response.weight());
+        assertThrows(ResponseStatusException.class, () -> cache.contract("9-123-12345G"));
+    }
+
+    @Test
+    void gzipsLargeResponses() throws IOException {
+        var cache = new ContractResponseCache(loanApprovalService, repository, new ContractETags(), objectMapper, 0);
+
+        var response = cache.statistics(1);
+
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(response.gzip()))) {
+            assertArrayEquals(response.json(), in.readAllBytes());
+        }
+        assertEquals(1, objectMapper.readTree(response.json()).get("pendingContractsCount").asLong());
+
+        var entity = response.toResponseEntity("gzip");
+        assertEquals("gzip", entity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, entity.getHeaders().getFirst(HttpHeaders.VARY));
+        assertEquals(ContractETags.gzip(response.etag()), entity.getHeaders().getETag());
+
+        var identity = response.toResponseEntity("gzip;q=0, identity");
+        assertArrayEquals(response.json(), identity.getBody());
+        assertNull(identity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, identity.getHeaders().getFirst(HttpHeaders.VARY));
+        assertEquals(response.etag(), identity.getHeaders().getETag());
+    }
+
+    @Test
+    void acceptEncodingHonoursQualityValues() {
+        assertTrue(EncodedResponse.acceptsGzip("gzip"));
+        assertTrue(EncodedResponse.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertTrue(EncodedResponse.acceptsGzip("br, *"));
+        assertTrue(EncodedResponse.acceptsGzip("x-gzip"));
+        assertFalse(EncodedResponse.acceptsGzip(null));
+        assertFalse(EncodedResponse.acceptsGzip("identity"));
+        assertFalse(EncodedResponse.acceptsGzip("gzip;q=0"));
+        assertFalse(EncodedResponse.acceptsGzip("gzip; q=0.000, *"));
+        assertFalse(EncodedResponse.acceptsGzip("*;q=0"));
+    }
+
+    @Test
+    void etagFollowsRepositoryVersion() {
+        var cache = new ContractResponseCache(loanApprovalService, repository, new ContractETags(), objectMapper, Integer.MAX_VALUE);
+        var first = cache.contract("1-123-12345G");
+        var firstStatistics = cache.statistics(1);
+
+        assertEquals(first.etag(), cache.contract("1-123-12345G").etag());
+        assertEquals(firstStatistics.etag(), cache.statistics(1).etag());
+        assertNotEquals(firstStatistics.etag(), cache.statistics(2).etag());
+
+        repository.update("1-123-12345G", contract -> new LoanContractRequest(contract.customerId(),
+                contract.loanAmount() + 1, contract.approvers(), contract.loanType(), contract.loanContractStatus(),
+                contract.createdDate(), contract.sentToCustomerDate()));
+
+        assertNotEquals(first.etag(), cache.contract("1-123-12345G").etag());
+        assertNotEquals(firstStatistics.etag(), cache.statistics(1).etag());
+        assertTrue(first.etag().startsWith("\"") && first.etag().endsWith("\""));
+    }
+}
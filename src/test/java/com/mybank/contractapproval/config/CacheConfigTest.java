@@ -0,0 +1,106 @@
+package com.mybank.contractapproval.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.mybank.contractapproval.controller.LoanApprovalController;
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CacheConfigTest {
+
+    @Autowired
+    private LoanApprovalController controller;
+
+    @Autowired
+    private LoanContractRepository repository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteById("1-123-12345G");
+    }
+
+    private static LoanContractRequest contract(ApprovalStatus approval, ContractStatus status) {
+        return new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, approval)
+                ),
+                LoanType.GENERAL,
+                status,
+                LocalDateTime.now(),
+                "Not approved yet"
+        );
+    }
+
+    private LoanContractRequest getById(String customerId) throws IOException {
+        return objectMapper.readValue(controller.getById(customerId, null).getBody(), LoanContractRequest.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> nativeCache(String name) {
+        return (Cache<Object, Object>) cacheManager.getCache(name).getNativeCache();
+    }
+
+    @Test
+    void mutationsEvictTheCachedContract() throws IOException {
+        var pending = contract(ApprovalStatus.PENDING, ContractStatus.PENDING);
+        var sent = contract(ApprovalStatus.APPROVED, ContractStatus.SENT);
+        repository.save(pending);
+
+        assertEquals(pending, getById("1-123-12345G"));
+        assertEquals(pending, getById("1-123-12345G"));
+        assertNotNull(nativeCache(CacheConfig.CONTRACTS).getIfPresent("1-123-12345G"));
+
+        repository.update("1-123-12345G", previous -> sent);
+
+        assertNull(nativeCache(CacheConfig.CONTRACTS).getIfPresent("1-123-12345G"));
+        assertEquals(sent, getById("1-123-12345G"));
+        assertTrue(nativeCache(CacheConfig.CONTRACTS).stats().hitCount() >= 1);
+    }
+
+    @Test
+    void missingContractIsNotCached() {
+        var error = assertThrows(ResponseStatusException.class, () -> controller.getById("1-123-12345G", null));
+
+        assertEquals(HttpStatus.NOT_FOUND, error.getStatusCode());
+        assertNull(nativeCache(CacheConfig.CONTRACTS).getIfPresent("1-123-12345G"));
+    }
+
+    @Test
+    void mutationsEvictStatistics() throws IOException {
+        controller.getContractStatistics(1, null);
+        assertEquals(1, nativeCache(CacheConfig.STATISTICS).estimatedSize());
+
+        repository.save(contract(ApprovalStatus.PENDING, ContractStatus.PENDING));
+
+        assertEquals(0, nativeCache(CacheConfig.STATISTICS).estimatedSize());
+        var statistics = objectMapper.readTree(controller.getContractStatistics(1, null).getBody());
+        assertEquals(1, statistics.get("pendingContractsCount").asLong());
+    }
+}
@@ -0,0 +1,32 @@
+package com.mybank.contractapproval.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadConfigTest {
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Test
+    void tomcatRunsRequestsOnVirtualThreads() throws Exception {
+        var tomcat = ((TomcatWebServer) context.getWebServer()).getTomcat();
+        var executor = (Executor) tomcat.getConnector().getProtocolHandler().getExecutor();
+
+        var virtual = new CompletableFuture<Boolean>();
+        executor.execute(() -> virtual.complete(Thread.currentThread().isVirtual()));
+
+        assertTrue(virtual.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,117 @@
+package com.mybank.contractapproval.controller;
+
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoanContractRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository.save(new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
+                ),
+                LoanType.GENERAL,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        ));
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteById("1-123-12345G");
+    }
+
+    private String etag(String url) throws Exception {
+        return mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void contractNotModifiedUntilItChanges() throws Exception {
+        var etag = etag("/api/contracts/1-123-12345G");
+
+        mockMvc.perform(get("/api/contracts/1-123-12345G").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        repository.update("1-123-12345G", contract -> new LoanContractRequest(contract.customerId(),
+                contract.loanAmount() + 1, contract.approvers(), contract.loanType(), contract.loanContractStatus(),
+                contract.createdDate(), contract.sentToCustomerDate()));
+
+        mockMvc.perform(get("/api/contracts/1-123-12345G").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        assertNotEquals(etag, etag("/api/contracts/1-123-12345G"));
+    }
+
+    @Test
+    void decisionRequiresTheCurrentTagWhenIfMatchIsSent() throws Exception {
+        var etag = etag("/api/contracts/1-123-12345G");
+        var vote = "{\"customerId\":\"1-123-12345G\",\"approvers\":[{\"username\":\"P998XYZ\",\"status\":\"REJECTED\"}]}";
+
+        var decided = mockMvc.perform(put("/api/contracts/decision").header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(vote))
+                .andExpect(status().isNoContent())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertEquals(decided, etag("/api/contracts/1-123-12345G"));
+        mockMvc.perform(put("/api/contracts/decision").header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(vote))
+                .andExpect(status().isConflict());
+        mockMvc.perform(delete("/api/contracts/1-123-12345G").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isConflict());
+        mockMvc.perform(delete("/api/contracts/1-123-12345G").header(HttpHeaders.IF_MATCH, decided))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void statisticsNotModifiedUntilAContractChanges() throws Exception {
+        var etag = etag("/api/contracts/statistics?minutes=5");
+
+        mockMvc.perform(get("/api/contracts/statistics?minutes=5").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        repository.deleteById("1-123-12345G");
+
+        var changed = etag("/api/contracts/statistics?minutes=5");
+        assertNotEquals(etag, changed);
+        assertEquals(changed, etag("/api/contracts/statistics?minutes=5"));
+    }
+}
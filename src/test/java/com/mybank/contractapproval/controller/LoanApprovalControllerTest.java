@@ -1,30 +1,47 @@
 package com.mybank.contractapproval.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybank.contractapproval.cache.ContractETags;
+import com.mybank.contractapproval.cache.ContractResponseCache;
+import com.mybank.contractapproval.cache.EncodedResponse;
 import com.mybank.contractapproval.exceptions.ConflictException;
+import com.mybank.contractapproval.exceptions.InvalidDataException;
 import com.mybank.contractapproval.exceptions.NotFoundException;
 import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.BatchItemResult;
+import com.mybank.contractapproval.model.ContractPage;
+import com.mybank.contractapproval.model.DecisionVote;
 import com.mybank.contractapproval.model.LoanContractRequest;
 import com.mybank.contractapproval.model.enums.ApprovalStatus;
 import com.mybank.contractapproval.model.enums.ContractStatus;
 import com.mybank.contractapproval.model.enums.LoanType;
 import com.mybank.contractapproval.model.enums.Managers;
 import com.mybank.contractapproval.repository.LoanContractRepository;
+import com.mybank.contractapproval.repository.VersionedContract;
+import com.mybank.contractapproval.service.ContractBatchService;
 import com.mybank.contractapproval.service.LoanApprovalService;
+import com.mybank.contractapproval.statistics.ColumnSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class LoanApprovalControllerTest {
@@ -38,6 +55,15 @@ class LoanApprovalControllerTest {
     @Mock
     private LoanApprovalService loanApprovalService;
 
+    @Mock
+    private ContractBatchService contractBatchService;
+
+    @Mock
+    private ContractResponseCache contractResponseCache;
+
+    @Spy
+    private ContractETags eTags = new ContractETags();
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -98,11 +124,39 @@ class LoanApprovalControllerTest {
                 "Not approved yet"
         );
 
-        when(loanApprovalService.findById(contract.customerId())).thenReturn(Optional.of(contract));
+        var json = "{\"customerId\":\"1-123-12345G\"}".getBytes(StandardCharsets.UTF_8);
+        when(contractResponseCache.contract(contract.customerId())).thenReturn(new EncodedResponse("\"v1\"", json, null));
+
+        var responseEntity = loanApprovalController.getById(contract.customerId(), "gzip");
+
+        assertArrayEquals(json, responseEntity.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, responseEntity.getHeaders().getContentType());
+        assertEquals("\"v1\"", responseEntity.getHeaders().getETag());
+        verifyNoInteractions(loanApprovalService);
+    }
+
+    @Test
+    void getContractStatistics() {
+        var json = "{}".getBytes(StandardCharsets.UTF_8);
+        var gzip = new byte[]{31, -117};
+        when(contractResponseCache.statistics(5)).thenReturn(new EncodedResponse("\"v2\"", json, gzip));
+
+        var plain = loanApprovalController.getContractStatistics(5, null);
+        var compressed = loanApprovalController.getContractStatistics(5, "gzip, deflate");
+
+        assertArrayEquals(json, plain.getBody());
+        assertNull(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(gzip, compressed.getBody());
+        assertEquals("gzip", compressed.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        verifyNoInteractions(repository);
+    }
 
-        LoanContractRequest responseEntity = loanApprovalController.getById(contract.customerId());
+    @Test
+    void getLoanSummary() {
+        var summary = new ColumnSummary(2, 300.0, 150.0, 100.0, 200.0);
+        when(loanApprovalService.summarizeLoans(ContractStatus.SENT, null, Managers.P998ABC)).thenReturn(summary);
 
-        assertEquals(contract, responseEntity);
+        assertEquals(summary, loanApprovalController.getLoanSummary(ContractStatus.SENT, null, Managers.P998ABC));
     }
 
     @Test
@@ -120,16 +174,27 @@ class LoanApprovalControllerTest {
                 "Not approved yet"
         );
 
-        when(loanApprovalService.updateStatus(any(LoanContractRequest.class), eq(ContractStatus.PENDING), eq(ApprovalStatus.PENDING)))
-                .thenReturn(contractRequest);
+        when(loanApprovalService.create(any(LoanContractRequest.class))).thenReturn(contractRequest);
 
         loanApprovalController.create(contractRequest);
 
-        verify(repository).save(ArgumentMatchers.any(LoanContractRequest.class));
+        verify(loanApprovalService).create(contractRequest);
+        verifyNoInteractions(repository);
     }
 
     @Test
-    void decision() throws NotFoundException {
+    void createBatch() throws IOException {
+        var body = new ByteArrayInputStream(new byte[0]);
+        var results = List.of(BatchItemResult.created(0, "1-123-12345G"));
+
+        when(contractBatchService.create(body)).thenReturn(results);
+
+        assertEquals(results, loanApprovalController.createBatch(body));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void decision() throws NotFoundException, InvalidDataException, ConflictException {
         var updatedRequest = new LoanContractRequest(
                 "1-123-12345G",
                 50000.0,
@@ -143,29 +208,77 @@ class LoanApprovalControllerTest {
                 "Not approved yet"
         );
 
-        doNothing().when(loanApprovalService).notFoundException(updatedRequest);
-        doNothing().when(loanApprovalService).makeDecision(updatedRequest);
-        when(loanApprovalService.populateMissingFields(updatedRequest)).thenReturn(updatedRequest);
+        when(loanApprovalService.decide(updatedRequest, 6L)).thenReturn(new VersionedContract(updatedRequest, 7));
 
-        loanApprovalController.decision(updatedRequest);
+        var response = loanApprovalController.decision(updatedRequest, eTags.contract(6));
 
-        verify(loanApprovalService).notFoundException(updatedRequest);
-        verify(loanApprovalService).makeDecision(updatedRequest);
-        verify(loanApprovalService).populateMissingFields(updatedRequest);
+        verify(loanApprovalService).decide(updatedRequest, 6L);
+        assertEquals(204, response.getStatusCode().value());
+        assertEquals(eTags.contract(7), response.getHeaders().getETag());
 
         verifyNoMoreInteractions(repository);
     }
 
     @Test
-    void delete() throws NotFoundException {
+    void streamAll() throws IOException {
+        var contract = new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
+                ),
+                LoanType.GENERAL,
+                ContractStatus.PENDING,
+                LocalDateTime.of(2023, 9, 1, 12, 0),
+                "Not approved yet"
+        );
+        var controller = new LoanApprovalController(repository, loanApprovalService, contractBatchService,
+                contractResponseCache, eTags, new ObjectMapper().findAndRegisterModules());
+
+        when(repository.streamAllContracts()).thenReturn(Stream.of(contract, contract));
+
+        var response = controller.streamAll();
+        var out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        var lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"customerId\":\"1-123-12345G\""));
+        assertEquals(lines[0], lines[1]);
+    }
+
+    @Test
+    void getPage() throws InvalidDataException {
+        var page = new ContractPage(List.of(), null);
+
+        when(loanApprovalService.findPage("1-123-12345G", 10)).thenReturn(page);
+
+        assertEquals(page, loanApprovalController.getPage("1-123-12345G", 10));
+    }
+
+    @Test
+    void decisions() {
+        var votes = List.of(new DecisionVote("1-123-12345G", Managers.P998ABC, ApprovalStatus.APPROVED));
+        var results = List.of(BatchItemResult.decided(0, "1-123-12345G"));
+
+        when(loanApprovalService.decideAll(votes)).thenReturn(results);
+
+        assertEquals(results, loanApprovalController.decisions(votes));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void delete() throws NotFoundException, ConflictException, InvalidDataException {
         String customerId = "1-123-12345G";
 
-        doNothing().when(loanApprovalService).notFoundException(customerId);
+        loanApprovalController.delete(customerId, null);
 
-        loanApprovalController.delete(customerId);
+        verify(loanApprovalService).delete(customerId, null);
 
-        verify(loanApprovalService).notFoundException(customerId);
+        loanApprovalController.delete(customerId, eTags.contract(3));
 
-        verify(repository).deleteById(customerId);
+        verify(loanApprovalService).delete(customerId, 3L);
+        verifyNoInteractions(repository);
     }
 }
@@ -0,0 +1,120 @@
+package com.mybank.contractapproval.controller;
+
+import com.mybank.contractapproval.model.BatchItemResult;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.service.ContractBatchService;
+import com.mybank.contractapproval.statistics.ColumnSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "journal.enabled=false")
+@ActiveProfiles("reactive")
+class ReactiveLoanApprovalControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private static String contract(String customerId) {
+        return "{\"customerId\":\"" + customerId + "\",\"loanAmount\":100.0,"
+                + "\"approvers\":[{\"username\":\"P998ABC\",\"status\":\"PENDING\"}],\"loanType\":\"GENERAL\"}";
+    }
+
+    @Test
+    void servesTheContractApi() {
+        webTestClient.post().uri("/api/contracts/create")
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(contract("1-123-12345R"))
+                .exchange().expectStatus().isCreated();
+        webTestClient.post().uri("/api/contracts/create")
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(contract("1-123-12345R"))
+                .exchange().expectStatus().isEqualTo(409);
+
+        var eTag = webTestClient.get().uri("/api/contracts/1-123-12345R")
+                .exchange().expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+        webTestClient.get().uri("/api/contracts/1-123-12345R").header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange().expectStatus().isNotModified();
+
+        webTestClient.get().uri("/api/contracts/statistics/loans?loanType=GENERAL&approver=P998ABC")
+                .exchange().expectStatus().isOk()
+                .expectBody(ColumnSummary.class).value(summary -> assertTrue(summary.count() >= 1 && summary.min() <= 100.0));
+
+        webTestClient.put().uri("/api/contracts/decision").header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"customerId\":\"1-123-12345R\",\"approvers\":[{\"username\":\"P998ABC\",\"status\":\"REJECTED\"}]}")
+                .exchange().expectStatus().isNoContent();
+        webTestClient.delete().uri("/api/contracts/1-123-12345R").header(HttpHeaders.IF_MATCH, eTag)
+                .exchange().expectStatus().isEqualTo(409);
+        webTestClient.delete().uri("/api/contracts/1-123-12345R")
+                .exchange().expectStatus().isNoContent();
+        webTestClient.get().uri("/api/contracts/1-123-12345R")
+                .exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void cancelledBatchReleasesTheReadingThread() throws Exception {
+        var reading = new CountDownLatch(1);
+        var finished = new CountDownLatch(1);
+        var batchService = mock(ContractBatchService.class);
+        when(batchService.create(any())).thenAnswer(invocation -> {
+            reading.countDown();
+            invocation.getArgument(0, InputStream.class).readAllBytes();
+            finished.countDown();
+            return List.of();
+        });
+        var controller = new ReactiveLoanApprovalController(null, null, batchService, null, null);
+        var firstItem = DefaultDataBufferFactory.sharedInstance.wrap(contract("3-123-12345R").getBytes(StandardCharsets.UTF_8));
+
+        var response = controller.createBatch(Flux.just((DataBuffer) firstItem).concatWith(Flux.never())).subscribe();
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        response.dispose();
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void streamsBatchInAndContractsOut() {
+        var body = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            body.append(contract(String.format("2-123-%05dR", i))).append('\n');
+        }
+
+        var results = webTestClient.post().uri("/api/contracts/batch")
+                .contentType(MediaType.APPLICATION_NDJSON).bodyValue(body.toString())
+                .exchange().expectStatus().isOk()
+                .expectBodyList(BatchItemResult.class).returnResult().getResponseBody();
+        assertEquals(300, results.size());
+        assertEquals(List.of(201), results.stream().map(BatchItemResult::status).distinct().toList());
+
+        var streamed = webTestClient.get().uri("/api/contracts").accept(MediaType.APPLICATION_NDJSON)
+                .exchange().expectStatus().isOk()
+                .returnResult(LoanContractRequest.class).getResponseBody()
+                .filter(contract -> contract.customerId().startsWith("2-123-"))
+                .collectList().block();
+        assertEquals(300, streamed.size());
+        assertEquals("2-123-00000R", streamed.get(0).customerId());
+
+        webTestClient.get().uri("/api/contracts").accept(MediaType.APPLICATION_JSON)
+                .exchange().expectStatus().isOk()
+                .expectBody().jsonPath("$[?(@.customerId == '2-123-00299R')]").exists();
+    }
+}
@@ -0,0 +1,234 @@
+package com.mybank.contractapproval.delivery;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractDispatcherTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicBoolean failNextEncoding = new AtomicBoolean();
+    private final ObjectMapper objectMapper = new ObjectMapper() {
+        @Override
+        public byte[] writeValueAsBytes(Object value) throws JsonProcessingException {
+            if (failNextEncoding.getAndSet(false)) {
+                throw new JsonMappingException(null, "Cannot encode");
+            }
+            return super.writeValueAsBytes(value);
+        }
+    }.findAndRegisterModules();
+    private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private volatile IntSupplier status = () -> 200;
+    private volatile long responseDelayMillis;
+
+    private HttpServer server;
+    private LoanContractRepository repository;
+    private ContractOutbox outbox;
+    private ContractDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/contracts", this::receive);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        repository = new LoanContractRepository();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+        if (outbox != null) {
+            outbox.close();
+        }
+        server.stop(0);
+    }
+
+    private void receive(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            int code = handle(objectMapper.readValue(exchange.getRequestBody(), LoanContractRequest[].class));
+            exchange.sendResponseHeaders(code, -1);
+        }
+    }
+
+    /**
+     * Counts the request as in flight only until its answer is decided, before the
+     * dispatcher can see the response and send the next one.
+     */
+    private int handle(LoanContractRequest[] contracts) {
+        maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+        try {
+            requests.incrementAndGet();
+            if (responseDelayMillis > 0) {
+                Thread.sleep(responseDelayMillis);
+            }
+            int code = status.getAsInt();
+            if (code == 200) {
+                for (LoanContractRequest contract : contracts) {
+                    received.add(contract.customerId());
+                }
+            }
+            return code;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 503;
+        } finally {
+            concurrent.decrementAndGet();
+        }
+    }
+
+    private void start(int batchSize, int maxConcurrent, int maxAttempts, int failureThreshold) throws IOException {
+        start(batchSize, maxConcurrent, maxAttempts, failureThreshold, Duration.ofMillis(10), Duration.ofMillis(50));
+    }
+
+    private void start(int batchSize, int maxConcurrent, int maxAttempts, int failureThreshold,
+                       Duration initialBackoff, Duration maxBackoff) throws IOException {
+        outbox = ContractOutbox.open(directory, repository);
+        var settings = new DeliverySettings(
+                URI.create("http://localhost:" + server.getAddress().getPort() + "/contracts"),
+                batchSize, maxConcurrent, maxAttempts, initialBackoff, maxBackoff,
+                Duration.ofSeconds(5), failureThreshold, Duration.ofMillis(300));
+        dispatcher = new ContractDispatcher(outbox, HttpClient.newHttpClient(), objectMapper, settings);
+        dispatcher.start();
+    }
+
+    private void send(int contracts) {
+        send(0, contracts);
+    }
+
+    private void send(int first, int contracts) {
+        for (int i = first; i < first + contracts; i++) {
+            repository.save(ContractOutboxTest.contract(String.format("1-123-%06d", i), ContractStatus.SENT,
+                    "2024-05-01T10:00"));
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void deliversSentContractsInBatchesWithinTheConcurrencyLimit() throws Exception {
+        responseDelayMillis = 20;
+        start(10, 2, 3, 5);
+
+        send(100);
+        await(() -> dispatcher.delivered() == 100);
+
+        assertEquals(100, new HashSet<>(received).size());
+        assertTrue(requests.get() >= 10, "batched into at most 10 per request");
+        assertTrue(maxConcurrent.get() <= 2, "at most 2 requests in flight");
+        assertEquals(0, outbox.size());
+    }
+
+    @Test
+    void retriesFailedBatches() throws Exception {
+        var calls = new AtomicInteger();
+        status = () -> calls.incrementAndGet() <= 2 ? 503 : 200;
+        send(3);
+        start(50, 1, 5, 5);
+        await(() -> dispatcher.delivered() == 3);
+
+        assertEquals(2, dispatcher.failedAttempts());
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    void rejectedBatchesAreNotRetried() throws Exception {
+        status = () -> 422;
+        send(2);
+        start(50, 1, 5, 5);
+        await(() -> dispatcher.rejected() == 2);
+
+        assertEquals(1, requests.get());
+        assertEquals(0, outbox.size());
+    }
+
+    @Test
+    void breakerStopsRequestsUntilTheReceiverRecovers() throws Exception {
+        status = () -> 500;
+        start(1, 1, 2, 2);
+
+        send(5);
+        await(() -> dispatcher.breakerState() == CircuitBreaker.State.OPEN);
+        int whileOpen = requests.get();
+        Thread.sleep(100);
+        assertEquals(whileOpen, requests.get());
+        assertEquals(5, outbox.size());
+
+        status = () -> 200;
+        await(() -> dispatcher.delivered() == 5);
+        assertEquals(CircuitBreaker.State.CLOSED, dispatcher.breakerState());
+    }
+
+    @Test
+    void trialThatCannotBeEncodedDoesNotStopDelivery() throws Exception {
+        status = () -> 500;
+        start(1, 1, 1, 1);
+
+        send(1);
+        await(() -> dispatcher.breakerState() == CircuitBreaker.State.OPEN);
+        failNextEncoding.set(true);
+        status = () -> 200;
+        await(() -> dispatcher.rejected() == 1);
+
+        send(1, 1);
+        await(() -> dispatcher.delivered() == 1);
+        assertEquals(CircuitBreaker.State.CLOSED, dispatcher.breakerState());
+    }
+
+    @Test
+    void retryIsNotSentWhileAnotherBatchOpenedTheBreaker() throws Exception {
+        status = () -> 500;
+        responseDelayMillis = 50;
+        send(2);
+        start(1, 2, 2, 2, Duration.ofMillis(100), Duration.ofMillis(100));
+
+        await(() -> dispatcher.breakerState() == CircuitBreaker.State.OPEN);
+        Thread.sleep(150);
+        assertEquals(2, requests.get());
+        assertEquals(2, outbox.size());
+
+        status = () -> 200;
+        await(() -> dispatcher.delivered() == 2);
+    }
+}
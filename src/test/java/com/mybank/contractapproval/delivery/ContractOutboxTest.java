@@ -0,0 +1,112 @@
+package com.mybank.contractapproval.delivery;
+
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.DecisionVote;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import com.mybank.contractapproval.service.LoanApprovalService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractOutboxTest {
+
+    @TempDir
+    Path directory;
+
+    static LoanContractRequest contract(String customerId, ContractStatus status, String sentToCustomerDate) {
+        return new LoanContractRequest(
+                customerId,
+                100.0,
+                List.of(new Approver(Managers.P998XYZ, status == ContractStatus.SENT
+                        ? ApprovalStatus.APPROVED : ApprovalStatus.PENDING)),
+                LoanType.GENERAL,
+                status,
+                LocalDateTime.of(2024, 5, 1, 9, 0),
+                sentToCustomerDate);
+    }
+
+    @Test
+    void queuesContractsAsTheyAreSent() throws IOException {
+        var repository = new LoanContractRepository();
+        try (var outbox = ContractOutbox.open(directory, repository)) {
+            repository.save(contract("1-123-12345G", ContractStatus.PENDING, "Not approved yet"));
+            assertTrue(outbox.isEmpty());
+
+            repository.replace(contract("1-123-12345G", ContractStatus.SENT, "2024-05-01T10:00"));
+            repository.replace(contract("1-123-12345G", ContractStatus.SENT, "2024-05-01T10:00"));
+
+            var batch = outbox.poll(10);
+            assertEquals(List.of("1-123-12345G 2024-05-01T10:00"), batch.stream().map(OutboxEntry::key).toList());
+            assertEquals(1, outbox.size());
+
+            outbox.delivered(batch);
+            assertEquals(0, outbox.size());
+        }
+    }
+
+    @Test
+    void anotherVoteOnASentContractIsNotDeliveredAgain() throws Exception {
+        var repository = new LoanContractRepository();
+        var loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
+        var wakeUps = new AtomicInteger();
+        try (var outbox = ContractOutbox.open(directory, repository)) {
+            outbox.onEnqueue(wakeUps::incrementAndGet);
+            repository.save(contract("1-123-12345G", ContractStatus.PENDING, "Not approved yet"));
+            var vote = new LoanContractRequest("1-123-12345G", null,
+                    List.of(new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED)), null, null, null, null);
+
+            loanApprovalService.decide(vote);
+            var sent = repository.findById("1-123-12345G").orElseThrow();
+            assertEquals(ContractStatus.SENT, sent.loanContractStatus());
+            assertEquals(1, wakeUps.get());
+            outbox.delivered(outbox.poll(10));
+
+            loanApprovalService.decide(vote);
+            loanApprovalService.decideAll(List.of(
+                    new DecisionVote("1-123-12345G", Managers.P998XYZ, ApprovalStatus.APPROVED)));
+
+            assertEquals(sent.sentToCustomerDate(),
+                    repository.findById("1-123-12345G").orElseThrow().sentToCustomerDate());
+            assertTrue(outbox.isEmpty());
+            assertEquals(0, outbox.size());
+            assertEquals(1, wakeUps.get());
+        }
+    }
+
+    @Test
+    void queuesUndeliveredSentContractsAgainOnOpen() throws IOException {
+        var repository = new LoanContractRepository();
+        repository.save(contract("1-123-12345G", ContractStatus.SENT, "2024-05-01T10:00"));
+        repository.save(contract("2-123-12345G", ContractStatus.SENT, "2024-05-01T10:00"));
+        repository.save(contract("3-123-12345G", ContractStatus.SENT, "2024-05-01T10:00"));
+
+        try (var outbox = ContractOutbox.open(directory, repository)) {
+            assertEquals(3, outbox.size());
+            var batch = outbox.poll(2);
+            outbox.delivered(batch.subList(0, 1));
+            outbox.rejected(batch.subList(1, 2));
+        }
+        repository.deleteById("1-123-12345G");
+
+        try (var outbox = ContractOutbox.open(directory, repository)) {
+            assertEquals(List.of("3-123-12345G 2024-05-01T10:00"),
+                    outbox.poll(10).stream().map(OutboxEntry::key).toList());
+        }
+        assertEquals(List.of("R 2-123-12345G 2024-05-01T10:00"),
+                Files.readAllLines(directory.resolve(ContractOutbox.LOG_FILE_NAME)));
+    }
+}
@@ -0,0 +1,89 @@
+package com.mybank.contractapproval.events;
+
+import com.mybank.contractapproval.journal.ContractJournal;
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractEventLogTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 5, 1, 9, 0);
+
+    private static LoanContractRequest contract(String customerId, double loanAmount,
+                                                ApprovalStatus first, ApprovalStatus second) {
+        return new LoanContractRequest(
+                customerId,
+                loanAmount,
+                List.of(new Approver(Managers.P998XYZ, first), new Approver(Managers.P998ABC, second)),
+                LoanType.GENERAL,
+                ContractStatus.PENDING,
+                CREATED,
+                "Not approved yet");
+    }
+
+    private static LoanContractRequest sent(LoanContractRequest contract) {
+        return new LoanContractRequest(contract.customerId(), contract.loanAmount(), contract.approvers(),
+                contract.loanType(), ContractStatus.SENT, contract.createdDate(), "2024-05-01T10:00");
+    }
+
+    @Test
+    void eventsBetweenContracts() {
+        var pending = contract("1-123-12345G", 100.0, ApprovalStatus.PENDING, ApprovalStatus.PENDING);
+        var voted = contract("1-123-12345G", 100.0, ApprovalStatus.APPROVED, ApprovalStatus.PENDING);
+        var decided = sent(contract("1-123-12345G", 100.0, ApprovalStatus.APPROVED, ApprovalStatus.APPROVED));
+        var revised = contract("1-123-12345G", 200.0, ApprovalStatus.PENDING, ApprovalStatus.PENDING);
+
+        assertEquals(List.of(new ContractEvent.Created(pending)), ContractEvent.between(null, pending));
+        assertEquals(List.of(new ContractEvent.ApproverVoted("1-123-12345G", Managers.P998XYZ,
+                ApprovalStatus.PENDING, ApprovalStatus.APPROVED)), ContractEvent.between(pending, voted));
+        assertEquals(List.of(
+                new ContractEvent.ApproverVoted("1-123-12345G", Managers.P998ABC, ApprovalStatus.PENDING, ApprovalStatus.APPROVED),
+                new ContractEvent.StatusChanged("1-123-12345G", ContractStatus.PENDING, ContractStatus.SENT, "2024-05-01T10:00")),
+                ContractEvent.between(voted, decided));
+        assertEquals(List.of(new ContractEvent.Revised(pending, revised)), ContractEvent.between(pending, revised));
+        assertEquals(List.of(new ContractEvent.Deleted(revised)), ContractEvent.between(revised, null));
+        assertEquals(List.of(), ContractEvent.between(pending, pending));
+    }
+
+    @Test
+    void registeredProjectionSeesEveryChange() {
+        List<ContractEvent> applied = new CopyOnWriteArrayList<>();
+        var commits = new AtomicInteger();
+        var repository = new LoanContractRepository(LoanContractRepository.DEFAULT_SENT_HORIZON_MINUTES,
+                (ContractJournal) null, new ContractProjection() {
+                    @Override
+                    public void apply(ContractEvent event) {
+                        applied.add(event);
+                    }
+
+                    @Override
+                    public void committed() {
+                        commits.incrementAndGet();
+                    }
+                });
+
+        var pending = contract("1-123-12345G", 100.0, ApprovalStatus.PENDING, ApprovalStatus.PENDING);
+        var rejected = contract("1-123-12345G", 100.0, ApprovalStatus.REJECTED, ApprovalStatus.PENDING);
+        repository.save(pending);
+        repository.replace(rejected);
+        repository.deleteById("1-123-12345G");
+
+        assertEquals(List.of(
+                new ContractEvent.Created(pending),
+                new ContractEvent.ApproverVoted("1-123-12345G", Managers.P998XYZ, ApprovalStatus.PENDING, ApprovalStatus.REJECTED),
+                new ContractEvent.Deleted(rejected)), applied);
+        assertTrue(commits.get() >= 3);
+    }
+}
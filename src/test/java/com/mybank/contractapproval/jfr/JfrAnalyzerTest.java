@@ -0,0 +1,85 @@
+package com.mybank.contractapproval.jfr;
+
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.DecisionVote;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import com.mybank.contractapproval.service.LoanApprovalService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrAnalyzerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void summarizesRecordedDecisionsWritesAndStatistics() throws Exception {
+        var repository = new LoanContractRepository();
+        var loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
+        repository.save(new LoanContractRequest(
+                "1-123-12345G",
+                60000.0,
+                List.of(
+                        new Approver(Managers.P998ABC, ApprovalStatus.PENDING),
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
+                ),
+                LoanType.MORTGAGE,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        ));
+        var vote = new LoanContractRequest("1-123-12345G", null,
+                List.of(new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED)), null, null, null, null);
+
+        var file = directory.resolve("approval.jfr");
+        try (var recording = new Recording()) {
+            recording.enable(DecisionEvent.class);
+            recording.enable(RepositoryWriteEvent.class);
+            recording.enable(StatisticsEvent.class);
+            recording.start();
+            loanApprovalService.decide(vote);
+            loanApprovalService.decideAll(List.of(
+                    new DecisionVote("1-123-12345G", Managers.P998ABC, ApprovalStatus.APPROVED)));
+            loanApprovalService.getStatistics(5);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        var decisions = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(JfrAnalyzer.EVENT_PREFIX + "Decision"))
+                .collect(Collectors.toMap(event -> event.getString("stage"), event -> event));
+        var decision = decisions.get("decide");
+        assertEquals("1-123-12345G", decision.getString("customerId"));
+        assertEquals("P998XYZ", decision.getString("approver"));
+        assertEquals("MORTGAGE", decision.getString("loanType"));
+        assertEquals(2, decision.getInt("approversScanned"));
+        assertEquals("P998ABC", decisions.get("decideAll").getString("approver"));
+        assertEquals("SENT", decisions.get("decideAll").getString("contractStatus"));
+
+        var summaries = JfrAnalyzer.summarize(file).stream()
+                .collect(Collectors.toMap(JfrAnalyzer.StageSummary::stage, summary -> summary));
+        assertEquals(1, summaries.get("Decision/decide").count());
+        assertEquals(1, summaries.get("Decision/decideAll").count());
+        assertEquals(1, summaries.get("RepositoryWrite/replaceIfVersion").count());
+        assertEquals(1, summaries.get("RepositoryWrite/update").count());
+        assertEquals(1, summaries.get("Statistics").count());
+        var decideAll = summaries.get("Decision/decideAll");
+        assertFalse(decideAll.inRepository().isZero());
+        assertTrue(decideAll.inRepository().compareTo(decideAll.total()) <= 0);
+    }
+}
@@ -0,0 +1,52 @@
+package com.mybank.contractapproval.journal;
+
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContractCodecTest {
+
+    private static LoanContractRequest roundTrip(LoanContractRequest contract) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        ContractCodec.write(new DataOutputStream(bytes), contract);
+        return ContractCodec.read(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    @Test
+    void roundTripsAllFields() throws IOException {
+        var contract = new LoanContractRequest(
+                "1-123-12345G",
+                4050.9,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED),
+                        new Approver(Managers.P998ABC, ApprovalStatus.REJECTED)
+                ),
+                LoanType.MORTGAGE,
+                ContractStatus.SENT,
+                LocalDateTime.parse("2023-09-05T18:21:24.0450078"),
+                "2023-09-05T19:17:06.8549747"
+        );
+
+        assertEquals(contract, roundTrip(contract));
+    }
+
+    @Test
+    void roundTripsNullFields() throws IOException {
+        var contract = new LoanContractRequest("1-123-12345G", null, null, null, null, null, null);
+
+        assertEquals(contract, roundTrip(contract));
+    }
+}
@@ -0,0 +1,227 @@
+package com.mybank.contractapproval.journal;
+
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private static LoanContractRequest contract(String customerId, ContractStatus status) {
+        return new LoanContractRequest(
+                customerId,
+                50000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
+                ),
+                LoanType.GENERAL,
+                status,
+                LocalDateTime.now(),
+                "Not approved yet"
+        );
+    }
+
+    private List<JournalRecord> reopen(DurabilityMode mode) throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        try (var journal = ContractJournal.open(directory, mode)) {
+            journal.replay(records::add);
+        }
+        return records;
+    }
+
+    @ParameterizedTest
+    @EnumSource(DurabilityMode.class)
+    void replaysRecordsInWriteOrder(DurabilityMode mode) throws IOException {
+        var created = contract("1-123-12345G", ContractStatus.PENDING);
+        var sent = contract("1-123-12345G", ContractStatus.SENT);
+
+        try (var journal = ContractJournal.open(directory, mode)) {
+            journal.replay(record -> fail("Journal should start empty"));
+            journal.append(JournalRecord.save(created)).join();
+            journal.append(JournalRecord.replace(sent)).join();
+            journal.append(JournalRecord.delete("1-123-12345G")).join();
+        }
+
+        assertEquals(List.of(
+                JournalRecord.save(created),
+                JournalRecord.replace(sent),
+                JournalRecord.delete("1-123-12345G")
+        ), reopen(mode));
+    }
+
+    @Test
+    void concurrentWritersAreAllPersisted() throws Exception {
+        int writers = 8;
+        int recordsPerWriter = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try (var journal = ContractJournal.open(directory, DurabilityMode.GROUP_COMMIT)) {
+            journal.replay(record -> { });
+            List<CompletableFuture<Void>> done = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                int id = writer;
+                done.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < recordsPerWriter; i++) {
+                        journal.append(JournalRecord.save(contract(String.format("%d-123-%06d", id, i),
+                                ContractStatus.PENDING))).join();
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(done.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(writers * recordsPerWriter, reopen(DurabilityMode.GROUP_COMMIT).size());
+    }
+
+    @Test
+    void discardsTornTail() throws IOException {
+        var created = contract("1-123-12345G", ContractStatus.PENDING);
+        try (var journal = ContractJournal.open(directory, DurabilityMode.FSYNC)) {
+            journal.replay(record -> { });
+            journal.append(JournalRecord.save(created)).join();
+        }
+        try (var channel = FileChannel.open(ContractJournal.segmentPath(directory, 1), StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3}));
+        }
+
+        assertEquals(List.of(JournalRecord.save(created)), reopen(DurabilityMode.FSYNC));
+
+        try (var journal = ContractJournal.open(directory, DurabilityMode.FSYNC)) {
+            journal.replay(record -> { });
+            journal.append(JournalRecord.delete("1-123-12345G")).join();
+        }
+
+        assertEquals(List.of(JournalRecord.save(created), JournalRecord.delete("1-123-12345G")),
+                reopen(DurabilityMode.FSYNC));
+    }
+
+    @Test
+    void rejectsAppendBeforeReplay() throws IOException {
+        try (var journal = ContractJournal.open(directory, DurabilityMode.FSYNC)) {
+            assertThrows(IllegalStateException.class,
+                    () -> journal.append(JournalRecord.delete("1-123-12345G")));
+        }
+    }
+
+    @Test
+    void checkpointCompactsSegmentsBehindSnapshot() throws IOException {
+        var first = contract("1-123-12345G", ContractStatus.PENDING);
+        var second = contract("2-123-12345G", ContractStatus.PENDING);
+        var third = contract("3-123-12345G", ContractStatus.SENT);
+        Map<String, LoanContractRequest> state = new LinkedHashMap<>();
+
+        try (var journal = ContractJournal.open(directory, DurabilityMode.GROUP_COMMIT)) {
+            journal.replay(record -> { });
+            for (var contract : List.of(first, second)) {
+                journal.append(JournalRecord.save(contract)).join();
+                state.put(contract.customerId(), contract);
+            }
+            journal.append(JournalRecord.delete(first.customerId())).join();
+            state.remove(first.customerId());
+
+            assertEquals(2, journal.checkpoint(state::values));
+
+            journal.append(JournalRecord.save(third)).join();
+            state.put(third.customerId(), third);
+
+            assertEquals(3, journal.checkpoint(state::values));
+        }
+
+        assertFalse(Files.exists(ContractJournal.segmentPath(directory, 1)));
+        assertFalse(Files.exists(ContractJournal.snapshotPath(directory, 2)));
+        assertTrue(Files.exists(ContractJournal.segmentPath(directory, 2)));
+        assertTrue(Files.exists(ContractJournal.snapshotPath(directory, 3)));
+
+        Map<String, LoanContractRequest> restored = new LinkedHashMap<>();
+        try (var journal = ContractJournal.open(directory, DurabilityMode.GROUP_COMMIT)) {
+            journal.replay(record -> {
+                if (record.type() == JournalRecord.Type.DELETE) {
+                    restored.remove(record.customerId());
+                } else {
+                    restored.put(record.customerId(), record.contract());
+                }
+            });
+        }
+
+        assertEquals(state, restored);
+    }
+
+    @Test
+    void failedWriteLeavesNoTornFrameBeforeLaterRecords() throws IOException {
+        var first = contract("1-123-12345G", ContractStatus.PENDING);
+        var third = contract("3-123-12345G", ContractStatus.PENDING);
+        var channels = new ArrayList<FailingChannel>();
+        try (var journal = FailingChannel.open(directory, DurabilityMode.FSYNC, channels)) {
+            journal.replay(record -> { });
+            journal.append(JournalRecord.save(first)).join();
+            channels.get(0).failNextWrite();
+
+            assertThrows(CompletionException.class,
+                    () -> journal.append(JournalRecord.save(contract("2-123-12345G", ContractStatus.PENDING))).join());
+
+            journal.append(JournalRecord.save(third)).join();
+        }
+
+        assertEquals(List.of(JournalRecord.save(first), JournalRecord.save(third)), reopen(DurabilityMode.FSYNC));
+    }
+
+    @Test
+    void refusesAppendsWhenPartialWriteCannotBeDiscarded() throws IOException {
+        var first = contract("1-123-12345G", ContractStatus.PENDING);
+        var channels = new ArrayList<FailingChannel>();
+        try (var journal = FailingChannel.open(directory, DurabilityMode.FSYNC, channels)) {
+            journal.replay(record -> { });
+            journal.append(JournalRecord.save(first)).join();
+            channels.get(0).failNextWrite();
+            channels.get(0).failTruncate();
+
+            assertThrows(CompletionException.class,
+                    () -> journal.append(JournalRecord.delete("1-123-12345G")).join());
+            assertThrows(IllegalStateException.class,
+                    () -> journal.append(JournalRecord.delete("1-123-12345G")));
+        }
+    }
+
+    @Test
+    void snapshotRoundTripsLargeState() throws IOException {
+        List<LoanContractRequest> contracts = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            contracts.add(contract(String.format("1-123-%06d", i), ContractStatus.PENDING));
+        }
+        var snapshot = ContractJournal.snapshotPath(directory, 7);
+
+        assertEquals(contracts.size(), ContractSnapshot.write(snapshot, 7, contracts));
+
+        List<LoanContractRequest> restored = new ArrayList<>();
+        assertEquals(contracts.size(), ContractSnapshot.read(snapshot, restored::add));
+        assertEquals(contracts, restored);
+    }
+}
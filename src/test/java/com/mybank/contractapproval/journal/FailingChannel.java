@@ -0,0 +1,143 @@
+package com.mybank.contractapproval.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Segment channel that writes only part of the next write and then fails, like a disk
+ * running full in the middle of a frame.
+ */
+public final class FailingChannel extends FileChannel {
+
+    private final FileChannel delegate;
+    private volatile boolean failNextWrite;
+    private volatile boolean failTruncate;
+
+    private FailingChannel(FileChannel delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Opens a journal whose segment channels fail on request; each segment's channel is
+     * added to {@code channels} as it is opened.
+     */
+    public static ContractJournal open(Path directory, DurabilityMode mode, List<FailingChannel> channels)
+            throws IOException {
+        return ContractJournal.open(directory, mode, channel -> {
+            var failing = new FailingChannel(channel);
+            channels.add(failing);
+            return failing;
+        });
+    }
+
+    public void failNextWrite() {
+        failNextWrite = true;
+    }
+
+    public void failTruncate() {
+        failTruncate = true;
+    }
+
+    @Override
+    public long write(ByteBuffer[] sources, int offset, int length) throws IOException {
+        if (failNextWrite) {
+            failNextWrite = false;
+            var source = sources[offset];
+            delegate.write(source.slice(source.position(), Math.min(5, source.remaining())));
+            throw new IOException("No space left on device");
+        }
+        return delegate.write(sources, offset, length);
+    }
+
+    @Override
+    public FileChannel truncate(long size) throws IOException {
+        if (failTruncate) {
+            throw new IOException("Input/output error");
+        }
+        delegate.truncate(size);
+        return this;
+    }
+
+    @Override
+    public int read(ByteBuffer destination) throws IOException {
+        return delegate.read(destination);
+    }
+
+    @Override
+    public long read(ByteBuffer[] destinations, int offset, int length) throws IOException {
+        return delegate.read(destinations, offset, length);
+    }
+
+    @Override
+    public int write(ByteBuffer source) throws IOException {
+        return delegate.write(source);
+    }
+
+    @Override
+    public long position() throws IOException {
+        return delegate.position();
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+        delegate.position(newPosition);
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        return delegate.size();
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+        delegate.force(metaData);
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        return delegate.transferTo(position, count, target);
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel source, long position, long count) throws IOException {
+        return delegate.transferFrom(source, position, count);
+    }
+
+    @Override
+    public int read(ByteBuffer destination, long position) throws IOException {
+        return delegate.read(destination, position);
+    }
+
+    @Override
+    public int write(ByteBuffer source, long position) throws IOException {
+        return delegate.write(source, position);
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+        return delegate.map(mode, position, size);
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) throws IOException {
+        return delegate.lock(position, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+        return delegate.tryLock(position, size, shared);
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+        delegate.close();
+    }
+}
@@ -0,0 +1,86 @@
+package com.mybank.contractapproval.metrics;
+
+import com.mybank.contractapproval.exceptions.InvalidDataException;
+import com.mybank.contractapproval.exceptions.NotFoundException;
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import com.mybank.contractapproval.service.LoanApprovalService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContractMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private LoanContractRepository repository;
+    private LoanApprovalService loanApprovalService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        repository = new LoanContractRepository();
+        loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
+        new ContractMetrics(repository, loanApprovalService).bindTo(registry);
+    }
+
+    private double transitions(String from, String to) {
+        return registry.get("contracts.transitions").tag("from", from).tag("to", to).counter().count();
+    }
+
+    private double gauge(String index, String key) {
+        return registry.get("contracts.index.size").tag("index", index).tag("key", key).gauge().value();
+    }
+
+    private static LoanContractRequest vote(Managers manager, ApprovalStatus status) {
+        return new LoanContractRequest("1-123-12345G", null, List.of(new Approver(manager, status)), null, null, null, null);
+    }
+
+    @Test
+    void countsTransitionsVotesAndIndexSizes() throws NotFoundException, InvalidDataException {
+        repository.save(new LoanContractRequest(
+                "1-123-12345G",
+                60000.0,
+                List.of(
+                        new Approver(Managers.P998ABC, ApprovalStatus.PENDING),
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
+                ),
+                LoanType.MORTGAGE,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        ));
+
+        assertEquals(1, transitions(ContractMetrics.NONE, "PENDING"));
+        assertEquals(1, registry.get("contracts.stored").gauge().value());
+        assertEquals(1, gauge("status", "PENDING"));
+        assertEquals(1, gauge("loanType", "MORTGAGE"));
+        assertEquals(1, gauge("approver", "P998XYZ"));
+        assertEquals(0, gauge("approver", "P998LOL"));
+
+        loanApprovalService.decide(vote(Managers.P998ABC, ApprovalStatus.REJECTED));
+        loanApprovalService.decide(vote(Managers.P998ABC, ApprovalStatus.APPROVED));
+        loanApprovalService.decide(vote(Managers.P998XYZ, ApprovalStatus.APPROVED));
+
+        assertEquals(2, registry.get("contracts.votes").tag("status", "APPROVED").counter().count());
+        assertEquals(1, registry.get("contracts.votes").tag("status", "REJECTED").counter().count());
+        assertEquals(1, transitions("PENDING", "SENT"));
+        assertEquals(1, gauge("status", "SENT"));
+
+        repository.deleteById("1-123-12345G");
+
+        assertEquals(1, transitions("SENT", ContractMetrics.NONE));
+        assertEquals(0, registry.get("contracts.stored").gauge().value());
+        assertEquals(0, registry.get("contracts.decision.retries").functionCounter().count());
+    }
+}
@@ -0,0 +1,37 @@
+package com.mybank.contractapproval.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void exposesRequestRepositoryCacheAndContractMetrics() throws Exception {
+        mockMvc.perform(get("/api/contracts/9-123-12345G")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/contracts/statistics?minutes=5")).andExpect(status().isOk());
+
+        var body = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(body.contains("http_server_requests_seconds_bucket{"), "request latency histogram");
+        assertTrue(body.contains("contracts_repository_seconds_bucket{"), "repository latency histogram");
+        assertTrue(body.contains("cache_gets_total{cache=\"statistics\""), "cache hits and misses");
+        assertTrue(body.contains("contracts_transitions_total{"), "status transitions");
+        assertTrue(body.contains("contracts_index_size{"), "index sizes");
+    }
+}
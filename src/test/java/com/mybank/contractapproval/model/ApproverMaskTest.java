@@ -0,0 +1,74 @@
+package com.mybank.contractapproval.model;
+
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApproverMaskTest {
+
+    @Test
+    void encodesAssignedApprovedAndRejectedManagers() {
+        int mask = ApproverMask.of(List.of(
+                new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED),
+                new Approver(Managers.P998ABC, ApprovalStatus.REJECTED),
+                new Approver(Managers.P998LOL, ApprovalStatus.PENDING)));
+
+        assertEquals(ApproverMask.bit(Managers.P998XYZ) | ApproverMask.bit(Managers.P998ABC)
+                | ApproverMask.bit(Managers.P998LOL), ApproverMask.assigned(mask));
+        assertEquals(ApproverMask.bit(Managers.P998XYZ), ApproverMask.approved(mask));
+        assertEquals(ApproverMask.bit(Managers.P998ABC), ApproverMask.rejected(mask));
+        assertEquals(ApproverMask.bit(Managers.P998LOL), ApproverMask.pending(mask));
+        assertEquals(3, ApproverMask.count(mask));
+        assertEquals(1, ApproverMask.approvals(mask));
+        assertTrue(ApproverMask.isAssigned(mask, Managers.P998LOL));
+        assertFalse(ApproverMask.isAssigned(mask, Managers.P998YVP));
+        assertTrue(ApproverMask.hasApproved(mask, Managers.P998XYZ));
+        assertFalse(ApproverMask.allApproved(mask));
+    }
+
+    @Test
+    void approvalRulesPerLoanType() {
+        int one = ApproverMask.of(List.of(new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED)));
+        int two = ApproverMask.of(List.of(new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED),
+                new Approver(Managers.P998ABC, ApprovalStatus.APPROVED)));
+
+        assertTrue(ApproverMask.isApproved(one, LoanType.GENERAL));
+        assertFalse(ApproverMask.isApproved(one, LoanType.MORTGAGE));
+        assertTrue(ApproverMask.isApproved(two, LoanType.MORTGAGE));
+        assertFalse(ApproverMask.isApproved(ApproverMask.EMPTY, LoanType.GENERAL));
+        assertFalse(ApproverMask.isApproved(two, null));
+        assertEquals(ApproverMask.EMPTY, ApproverMask.of(null));
+    }
+
+    @Test
+    void agreesWithTheApproverListIncludingRepeatedManagers() {
+        var random = new Random(42);
+        var managers = Managers.values();
+        var statuses = ApprovalStatus.values();
+        for (int run = 0; run < 10_000; run++) {
+            List<Approver> approvers = new ArrayList<>();
+            for (int i = random.nextInt(6); i > 0; i--) {
+                approvers.add(new Approver(random.nextInt(8) == 0 ? null : managers[random.nextInt(managers.length)],
+                        statuses[random.nextInt(statuses.length)]));
+            }
+            int mask = ApproverMask.of(approvers);
+
+            assertEquals(approvers.stream().allMatch(approver -> approver.status() == ApprovalStatus.APPROVED),
+                    ApproverMask.allApproved(mask), approvers.toString());
+            assertEquals(approvers.size(), ApproverMask.count(mask));
+            for (Managers manager : managers) {
+                assertEquals(approvers.stream().anyMatch(approver -> approver.username() == manager),
+                        ApproverMask.isAssigned(mask, manager));
+                assertEquals(approvers.stream().anyMatch(approver -> approver.username() == manager
+                        && approver.status() == ApprovalStatus.APPROVED), ApproverMask.hasApproved(mask, manager));
+            }
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.mybank.contractapproval.repository;
 
+import com.mybank.contractapproval.journal.ContractJournal;
+import com.mybank.contractapproval.journal.DurabilityMode;
+import com.mybank.contractapproval.journal.FailingChannel;
 import com.mybank.contractapproval.model.Approver;
 import com.mybank.contractapproval.model.LoanContractRequest;
 import com.mybank.contractapproval.model.enums.ApprovalStatus;
@@ -8,11 +11,16 @@ import com.mybank.contractapproval.model.enums.LoanType;
 import com.mybank.contractapproval.model.enums.Managers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -67,6 +75,173 @@ class LoanContractRepositoryTest {
         assertTrue(repository.existsById(updatedContract.customerId()));
     }
 
+    @Test
+    void saveIfNoPending() {
+        var pendingContract = new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
+                ),
+                LoanType.GENERAL,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        );
+        var sentContract = new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED)
+                ),
+                LoanType.GENERAL,
+                ContractStatus.SENT,
+                LocalDateTime.now(),
+                LocalDateTime.now().toString()
+        );
+
+        assertTrue(repository.saveIfNoPending(pendingContract));
+        assertFalse(repository.saveIfNoPending(pendingContract));
+
+        repository.replace(sentContract);
+
+        assertTrue(repository.saveIfNoPending(pendingContract));
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    void findPageAndStreamInCustomerIdOrder() {
+        for (String customerId : List.of("3-123-12345G", "1-123-12345G", "4-123-12345G", "2-123-12345G")) {
+            repository.save(new LoanContractRequest(
+                    customerId,
+                    50000.0,
+                    List.of(
+                            new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
+                    ),
+                    LoanType.GENERAL,
+                    ContractStatus.PENDING,
+                    LocalDateTime.now(),
+                    "Not approved yet"
+            ));
+        }
+        repository.deleteById("3-123-12345G");
+
+        assertEquals(List.of("1-123-12345G", "2-123-12345G"),
+                repository.findPage(null, 2).stream().map(LoanContractRequest::customerId).toList());
+        assertEquals(List.of("4-123-12345G"),
+                repository.findPage("2-123-12345G", 2).stream().map(LoanContractRequest::customerId).toList());
+        assertEquals(List.of(), repository.findPage("4-123-12345G", 2));
+        assertEquals(List.of("1-123-12345G", "2-123-12345G", "4-123-12345G"),
+                repository.streamAllContracts().map(LoanContractRequest::customerId).toList());
+    }
+
+    @Test
+    void everyMutationBumpsTheVersion() {
+        var contract = new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
+                ),
+                LoanType.GENERAL,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        );
+
+        assertEquals(0, repository.version());
+
+        repository.save(contract);
+        var saved = repository.findVersionedById("1-123-12345G").orElseThrow();
+
+        assertEquals(contract, saved.contract());
+        assertEquals(repository.version(), saved.version());
+
+        repository.update("1-123-12345G", previous -> previous);
+
+        assertEquals(saved.version(), repository.findVersionedById("1-123-12345G").orElseThrow().version());
+
+        repository.update("1-123-12345G", previous -> new LoanContractRequest(previous.customerId(),
+                previous.loanAmount(), previous.approvers(), previous.loanType(), previous.loanContractStatus(),
+                previous.createdDate(), previous.sentToCustomerDate()));
+        var updated = repository.findVersionedById("1-123-12345G").orElseThrow();
+
+        assertTrue(updated.version() > saved.version());
+
+        repository.deleteById("1-123-12345G");
+
+        assertTrue(repository.version() > updated.version());
+        assertTrue(repository.findVersionedById("1-123-12345G").isEmpty());
+    }
+
+    @Test
+    void replaceAndDeleteOnlyAtTheExpectedVersion() {
+        var contract = new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
+                ),
+                LoanType.GENERAL,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        );
+        var sent = new LoanContractRequest(contract.customerId(), contract.loanAmount(),
+                List.of(new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED)), contract.loanType(),
+                ContractStatus.SENT, contract.createdDate(), contract.sentToCustomerDate());
+
+        repository.save(contract);
+        var saved = repository.findVersionedById("1-123-12345G").orElseThrow();
+
+        var stale = repository.replaceIfVersion(sent, saved.version() - 1).orElseThrow();
+        assertEquals(saved, stale);
+        assertEquals(0, repository.countContractsByStatus(ContractStatus.SENT));
+
+        var replaced = repository.replaceIfVersion(sent, saved.version()).orElseThrow();
+        assertSame(sent, replaced.contract());
+        assertTrue(replaced.version() > saved.version());
+        assertEquals(1, repository.countContractsByStatus(ContractStatus.SENT));
+
+        assertFalse(repository.deleteIfVersion("1-123-12345G", saved.version()));
+        assertTrue(repository.existsById("1-123-12345G"));
+        assertTrue(repository.deleteIfVersion("1-123-12345G", replaced.version()));
+        assertFalse(repository.existsById("1-123-12345G"));
+        assertTrue(repository.replaceIfVersion(sent, replaced.version()).isEmpty());
+    }
+
+    @Test
+    void saveAllIfNoPending() {
+        var first = new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
+                ),
+                LoanType.GENERAL,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        );
+        var second = new LoanContractRequest(
+                "2-456-67890H",
+                75000.0,
+                List.of(
+                        new Approver(Managers.P998ABC, ApprovalStatus.PENDING)
+                ),
+                LoanType.MORTGAGE,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        );
+
+        var saved = repository.saveAllIfNoPending(List.of(first, second, first));
+
+        assertArrayEquals(new boolean[]{true, true, false}, saved);
+        assertEquals(2, repository.count());
+        assertEquals(2, repository.countContractsByStatus(ContractStatus.PENDING));
+    }
+
     @Test
     void existsById() {
         var contractRequest = new LoanContractRequest(
@@ -102,9 +277,9 @@ class LoanContractRepositoryTest {
     }
 
     @Test
-    void deleteById() {
+    void findById() {
         var contractRequest = new LoanContractRequest(
-                "6-123-12345G",
+                "1-123-12345G",
                 50000.0,
                 List.of(
                         new Approver(Managers.P998XYZ, ApprovalStatus.PENDING),
@@ -117,51 +292,46 @@ class LoanContractRepositoryTest {
         );
         repository.save(contractRequest);
 
-        assertTrue(repository.existsById(contractRequest.customerId()));
-
-        repository.deleteById(contractRequest.customerId());
-
-        assertFalse(repository.existsById(contractRequest.customerId()));
+        assertEquals(contractRequest, repository.findById(contractRequest.customerId()).orElseThrow());
+        assertTrue(repository.findById("2-123-12345G").isEmpty());
     }
 
     @Test
-    void statusContractPending() {
-        var contractRequest1 = new LoanContractRequest(
-                "6-123-12345G",
+    void replaceKeepsOneContractPerCustomer() {
+        var contractRequest = new LoanContractRequest(
+                "1-123-12345G",
                 50000.0,
                 List.of(
-                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING),
-                        new Approver(Managers.P998ABC, ApprovalStatus.PENDING)
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
                 ),
                 LoanType.GENERAL,
                 ContractStatus.PENDING,
                 LocalDateTime.now(),
                 "Not approved yet"
         );
-
-        var contractRequest2 = new LoanContractRequest(
-                "2-456-67890H",
-                75000.0,
+        var updatedContract = new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
                 List.of(
-                        new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED),
-                        new Approver(Managers.P998ABC, ApprovalStatus.APPROVED)
+                        new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED)
                 ),
                 LoanType.GENERAL,
                 ContractStatus.SENT,
-                LocalDateTime.now(),
-                "Approved date"        );
+                contractRequest.createdDate(),
+                LocalDateTime.now().toString()
+        );
 
-        repository.save(contractRequest1);
-        repository.save(contractRequest2);
+        repository.save(contractRequest);
+        repository.replace(updatedContract);
 
-        assertTrue(repository.statusContractPending(contractRequest1));
-        assertFalse(repository.statusContractPending(contractRequest2));
+        assertEquals(1, repository.count());
+        assertEquals(updatedContract, repository.findById(contractRequest.customerId()).orElseThrow());
     }
 
     @Test
-    void findSentContracts() {
-        var contractRequest1 = new LoanContractRequest(
-                "1-123-12345G",
+    void deleteById() {
+        var contractRequest = new LoanContractRequest(
+                "6-123-12345G",
                 50000.0,
                 List.of(
                         new Approver(Managers.P998XYZ, ApprovalStatus.PENDING),
@@ -172,39 +342,48 @@ class LoanContractRepositoryTest {
                 LocalDateTime.now(),
                 "Not approved yet"
         );
+        repository.save(contractRequest);
 
-        var contractRequest2 = new LoanContractRequest(
-                "2-456-67890H",
-                75000.0,
+        assertTrue(repository.existsById(contractRequest.customerId()));
+
+        repository.deleteById(contractRequest.customerId());
+
+        assertFalse(repository.existsById(contractRequest.customerId()));
+    }
+
+    @Test
+    void countSentContracts() {
+        var pendingContract = new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
                 List.of(
-                        new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED),
-                        new Approver(Managers.P998ABC, ApprovalStatus.APPROVED)
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
                 ),
                 LoanType.GENERAL,
-                ContractStatus.SENT,
+                ContractStatus.PENDING,
                 LocalDateTime.now(),
-                "Approved date"
+                "Not approved yet"
         );
-
-        var contractRequest3 = new LoanContractRequest(
-                "3-789-09876J",
-                60000.0,
+        var sentContract = new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
                 List.of(
-                        new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED),
-                        new Approver(Managers.P998ABC, ApprovalStatus.APPROVED)
+                        new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED)
                 ),
                 LoanType.GENERAL,
                 ContractStatus.SENT,
-                LocalDateTime.now(),
-                "Approved date"        );
+                pendingContract.createdDate(),
+                LocalDateTime.now().toString()
+        );
 
-        repository.save(contractRequest1);
-        repository.save(contractRequest2);
-        repository.save(contractRequest3);
+        repository.save(pendingContract);
+
+        assertEquals(0, repository.countSentContracts(1));
 
-        var sentContracts = repository.findSentContracts(1);
+        repository.replace(sentContract);
+        repository.replace(sentContract);
 
-        assertEquals(2, sentContracts.size());
+        assertEquals(1, repository.countSentContracts(1));
     }
 
     @Test
@@ -460,4 +639,227 @@ class LoanContractRepositoryTest {
 
         assertEquals(expectedMinLoanAmount, actualMinLoanAmount);
     }
-}
\ No newline at end of file
+
+    @Test
+    void countContractsByStatus() {
+        var pendingContract = new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
+                ),
+                LoanType.GENERAL,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        );
+        var sentContract = new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED)
+                ),
+                LoanType.GENERAL,
+                ContractStatus.SENT,
+                pendingContract.createdDate(),
+                LocalDateTime.now().toString()
+        );
+
+        repository.save(pendingContract);
+
+        assertEquals(1, repository.countContractsByStatus(ContractStatus.PENDING));
+        assertEquals(0, repository.countContractsByStatus(ContractStatus.SENT));
+
+        repository.replace(sentContract);
+
+        assertEquals(0, repository.countContractsByStatus(ContractStatus.PENDING));
+        assertEquals(1, repository.countContractsByStatus(ContractStatus.SENT));
+
+        repository.deleteById(sentContract.customerId());
+
+        assertEquals(0, repository.countContractsByStatus(ContractStatus.SENT));
+    }
+
+    @Test
+    void findByLoanTypeAndApprover() {
+        var generalContract = new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
+                ),
+                LoanType.GENERAL,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        );
+        var mortgageContract = new LoanContractRequest(
+                "2-456-67890H",
+                75000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING),
+                        new Approver(Managers.P998ABC, ApprovalStatus.PENDING)
+                ),
+                LoanType.MORTGAGE,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        );
+
+        repository.save(generalContract);
+        repository.save(mortgageContract);
+
+        assertEquals(List.of(mortgageContract), repository.findByLoanType(LoanType.MORTGAGE));
+        assertEquals(2, repository.findByApprover(Managers.P998XYZ).size());
+        assertEquals(List.of(mortgageContract), repository.findByApprover(Managers.P998ABC));
+        assertTrue(repository.findByApprover(Managers.P998LOL).isEmpty());
+    }
+
+    @Test
+    void calculateApproverStatistics() {
+        var contractRequest1 = new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED),
+                        new Approver(Managers.P998ABC, ApprovalStatus.PENDING)
+                ),
+                LoanType.MORTGAGE,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        );
+        var contractRequest2 = new LoanContractRequest(
+                "2-456-67890H",
+                75000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED),
+                        new Approver(Managers.P998ABC, ApprovalStatus.APPROVED)
+                ),
+                LoanType.MORTGAGE,
+                ContractStatus.SENT,
+                LocalDateTime.now(),
+                "Approved date"
+        );
+
+        repository.save(contractRequest1);
+        repository.save(contractRequest2);
+
+        var approverStatistics = repository.calculateApproverStatistics();
+
+        assertEquals(2, approverStatistics.size());
+        assertEquals("P998XYZ", approverStatistics.get(0).getUsername());
+        assertEquals(2, approverStatistics.get(0).getNumberOfApprovals());
+        assertEquals("P998ABC", approverStatistics.get(1).getUsername());
+        assertEquals(1, approverStatistics.get(1).getNumberOfApprovals());
+    }
+
+    @Test
+    void restoresContractsFromJournal(@TempDir Path directory) throws IOException {
+        var pendingContract = new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
+                ),
+                LoanType.GENERAL,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        );
+        var sentContract = new LoanContractRequest(
+                "2-456-67890H",
+                75000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED)
+                ),
+                LoanType.GENERAL,
+                ContractStatus.SENT,
+                LocalDateTime.now(),
+                LocalDateTime.now().toString()
+        );
+
+        try (var journal = ContractJournal.open(directory, DurabilityMode.GROUP_COMMIT)) {
+            var journaled = new LoanContractRepository(LoanContractRepository.DEFAULT_SENT_HORIZON_MINUTES, journal);
+            journaled.save(pendingContract);
+            journaled.save(sentContract);
+            journaled.save(new LoanContractRequest("3-789-09876J", 60000.0, List.of(), LoanType.GENERAL,
+                    ContractStatus.PENDING, LocalDateTime.now(), "Not approved yet"));
+            journaled.snapshot();
+            journaled.deleteById("3-789-09876J");
+        }
+
+        try (var journal = ContractJournal.open(directory, DurabilityMode.GROUP_COMMIT)) {
+            var restored = new LoanContractRepository(LoanContractRepository.DEFAULT_SENT_HORIZON_MINUTES, journal);
+
+            assertEquals(2, restored.count());
+            assertEquals(pendingContract, restored.findById(pendingContract.customerId()).orElseThrow());
+            assertEquals(1, restored.countContractsByStatus(ContractStatus.SENT));
+            assertEquals(125000.0, restored.calculateSumOfLoanAmounts());
+            assertEquals(0, restored.countSentContracts(1));
+        }
+    }
+
+    @Test
+    void failedJournalWriteIsRolledBackWithoutBeingReported(@TempDir Path directory) throws IOException {
+        var pendingContract = new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
+                ),
+                LoanType.GENERAL,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        );
+        var sentContract = new LoanContractRequest(
+                "1-123-12345G",
+                50000.0,
+                List.of(
+                        new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED)
+                ),
+                LoanType.GENERAL,
+                ContractStatus.SENT,
+                LocalDateTime.now(),
+                LocalDateTime.now().toString()
+        );
+        var otherContract = new LoanContractRequest("2-456-67890H", 75000.0, List.of(), LoanType.MORTGAGE,
+                ContractStatus.PENDING, LocalDateTime.now(), "Not approved yet");
+
+        var channels = new ArrayList<FailingChannel>();
+        try (var journal = FailingChannel.open(directory, DurabilityMode.FSYNC, channels)) {
+            var journaled = new LoanContractRepository(LoanContractRepository.DEFAULT_SENT_HORIZON_MINUTES, journal);
+            var reported = new ArrayList<LoanContractRequest>();
+            journaled.addListener((previous, current) -> reported.add(current));
+            journaled.save(pendingContract);
+            var stored = journaled.findVersionedById(pendingContract.customerId()).orElseThrow();
+
+            channels.get(0).failNextWrite();
+            assertThrows(CompletionException.class, () -> journaled.replace(sentContract));
+            channels.get(0).failNextWrite();
+            assertThrows(CompletionException.class, () -> journaled.save(otherContract));
+
+            assertEquals(stored, journaled.findVersionedById(pendingContract.customerId()).orElseThrow());
+            assertFalse(journaled.existsById(otherContract.customerId()));
+            assertEquals(List.of(pendingContract), journaled.findAllContracts());
+            assertEquals(List.of(pendingContract), journaled.findByStatus(ContractStatus.PENDING));
+            assertEquals(List.of(), journaled.findByStatus(ContractStatus.SENT));
+            assertEquals(List.of(), journaled.findByLoanType(LoanType.MORTGAGE));
+            assertEquals(50000.0, journaled.calculateSumOfLoanAmounts());
+            assertEquals(0, journaled.countSentContracts(1));
+            assertEquals(List.of(pendingContract), reported);
+
+            journaled.replace(sentContract);
+
+            assertEquals(List.of(pendingContract, sentContract), reported);
+            assertEquals(1, journaled.countSentContracts(1));
+        }
+
+        try (var journal = ContractJournal.open(directory, DurabilityMode.FSYNC)) {
+            var restored = new LoanContractRepository(LoanContractRepository.DEFAULT_SENT_HORIZON_MINUTES, journal);
+
+            assertEquals(List.of(sentContract), restored.findAllContracts());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.mybank.contractapproval.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybank.contractapproval.config.CacheConfig;
+import com.mybank.contractapproval.model.BatchItemResult;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractBatchServiceTest {
+
+    private LoanContractRepository repository;
+    private ContractBatchService contractBatchService;
+
+    @BeforeEach
+    void setUp() {
+        repository = new LoanContractRepository();
+        var loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
+        contractBatchService = new ContractBatchService(loanApprovalService, repository,
+                new ObjectMapper().findAndRegisterModules(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ConcurrentMapCacheManager(CacheConfig.CONTRACTS), 2);
+    }
+
+    private List<BatchItemResult> create(String body) throws IOException {
+        return contractBatchService.create(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String contract(String customerId, String loanAmount) {
+        return "{\"customerId\":\"" + customerId + "\",\"loanAmount\":" + loanAmount
+                + ",\"approvers\":[{\"username\":\"P998ABC\",\"status\":\"APPROVED\"}],\"loanType\":\"GENERAL\"}";
+    }
+
+    @Test
+    void createsArrayAcrossChunks() throws IOException {
+        var results = create("[" + contract("1-123-12345G", "100.0") + ","
+                + contract("2-123-12345G", "200.0") + ","
+                + contract("3-123-12345G", "300.0") + "]");
+
+        assertEquals(List.of(
+                BatchItemResult.created(0, "1-123-12345G"),
+                BatchItemResult.created(1, "2-123-12345G"),
+                BatchItemResult.created(2, "3-123-12345G")), results);
+        assertEquals(3, repository.countContractsByStatus(ContractStatus.PENDING));
+
+        var stored = repository.findById("1-123-12345G").orElseThrow();
+        assertEquals(ApprovalStatus.PENDING, stored.approvers().get(0).status());
+        assertNotNull(stored.createdDate());
+    }
+
+    @Test
+    void createsNdjson() throws IOException {
+        var results = create(contract("1-123-12345G", "100.0") + "\n" + contract("2-123-12345G", "200.0") + "\n");
+
+        assertEquals(2, results.size());
+        assertEquals(2, repository.count());
+    }
+
+    @Test
+    void reportsEachRejectedItem() throws IOException {
+        var results = create("["
+                + contract("1-123-12345G", "100.0") + ","
+                + contract("bad-id", "100.0") + ","
+                + contract("2-123-12345G", "-5") + ","
+                + "{\"customerId\":\"3-123-12345G\",\"loanType\":\"CAR\"},"
+                + contract("1-123-12345G", "100.0") + "]");
+
+        assertEquals(201, results.get(0).status());
+        assertEquals(400, results.get(1).status());
+        assertEquals("ID must follow the pattern X-XXX-XXXXXX", results.get(1).message());
+        assertEquals(400, results.get(2).status());
+        assertEquals("Loan amount must be positive", results.get(2).message());
+        assertEquals(400, results.get(3).status());
+        assertEquals("3-123-12345G", results.get(3).customerId());
+        assertEquals(409, results.get(4).status());
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    void stopsAtMalformedJson() throws IOException {
+        var results = create("[" + contract("1-123-12345G", "100.0") + ",{\"customerId\":");
+
+        assertEquals(2, results.size());
+        assertEquals(201, results.get(0).status());
+        assertEquals(400, results.get(1).status());
+        assertTrue(results.get(1).message().startsWith("Malformed JSON"));
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    void emptyBody() throws IOException {
+        assertEquals(List.of(), create(""));
+        assertEquals(List.of(), create("[]"));
+    }
+
+    @Test
+    void failedReadDropsTheUnflushedChunk() {
+        var items = "[" + contract("1-123-12345G", "100.0") + ","
+                + contract("2-123-12345G", "200.0") + ","
+                + contract("3-123-12345G", "300.0") + ",";
+        var failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        };
+
+        assertThrows(IOException.class, () -> contractBatchService.create(new SequenceInputStream(
+                new ByteArrayInputStream(items.getBytes(StandardCharsets.UTF_8)), failing)));
+
+        assertEquals(2, repository.count());
+        assertFalse(repository.existsById("3-123-12345G"));
+    }
+}
@@ -1,22 +1,36 @@
 package com.mybank.contractapproval.service;
 
 import com.mybank.contractapproval.exceptions.ConflictException;
+import com.mybank.contractapproval.exceptions.InvalidDataException;
 import com.mybank.contractapproval.exceptions.NotFoundException;
+import com.mybank.contractapproval.journal.ContractJournal;
 import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.BatchItemResult;
+import com.mybank.contractapproval.model.DecisionVote;
 import com.mybank.contractapproval.model.LoanContractRequest;
 import com.mybank.contractapproval.model.enums.ApprovalStatus;
 import com.mybank.contractapproval.model.enums.ContractStatus;
 import com.mybank.contractapproval.model.enums.LoanType;
 import com.mybank.contractapproval.model.enums.Managers;
+import com.mybank.contractapproval.journal.ContractJournal;
 import com.mybank.contractapproval.repository.LoanContractRepository;
+import com.mybank.contractapproval.statistics.ColumnSummary;
+import com.mybank.contractapproval.statistics.ContractColumns;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -171,45 +185,6 @@ class LoanApprovalServiceTest {
         assertEquals(approvers.size(), updatedApprovers.size());
     }
 
-    @Test
-    void getUpdatedContractRequest() {
-        LoanContractRequest existingContract = new LoanContractRequest(
-                "5-123-12345G",
-                90000.0,
-                List.of(
-                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING),
-                        new Approver(Managers.P998ABC, ApprovalStatus.PENDING)
-                ),
-                LoanType.MORTGAGE,
-                ContractStatus.PENDING,
-                LocalDateTime.now(),
-                "Not approved yet"
-        );
-
-        LoanContractRequest updatedRequest = new LoanContractRequest(
-                "5-123-12345G",
-                90000.0,
-                List.of(
-                        new Approver(Managers.P998XYZ, ApprovalStatus.APPROVED),
-                        new Approver(Managers.P998ABC, ApprovalStatus.PENDING)
-                ),
-                LoanType.MORTGAGE,
-                ContractStatus.PENDING,
-                LocalDateTime.now(),
-                "Not approved yet"
-        );
-
-        when(repository.existsById(existingContract.customerId())).thenReturn(true);
-
-        LoanContractRequest updatedContract = loanApprovalService.getUpdatedContractRequest(updatedRequest, existingContract, 0);
-
-        assertEquals(ApprovalStatus.APPROVED, updatedContract.approvers().get(0).status());
-        assertEquals(existingContract.customerId(), updatedContract.customerId());
-        assertEquals(existingContract.loanAmount(), updatedContract.loanAmount());
-
-        assertEquals(ContractStatus.PENDING, updatedContract.loanContractStatus());
-    }
-
     @Test
     void hasSufficientApprovals() {
         LoanContractRequest contractWithGeneralLoan = new LoanContractRequest(
@@ -243,27 +218,61 @@ class LoanApprovalServiceTest {
     }
 
     @Test
-    void populateMissingFields() {
+    void notFoundException() {
+        String nonExistentCustomerId = "9-123-12345G";
+
+        assertThrows(NotFoundException.class, () -> {
+            loanApprovalService.notFoundException(nonExistentCustomerId);
+        });
+    }
+
+    @Test
+    void testNotFoundException() {
+        String nonExistentCustomerId = "9-123-12345G";
+
+        assertThrows(NotFoundException.class, () -> {
+            loanApprovalService.notFoundException(nonExistentCustomerId);
+        });
+    }
+
+    @Test
+    void decide() throws NotFoundException, InvalidDataException {
         var repository = new LoanContractRepository();
+        var loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
 
-        LoanContractRequest existingContract = new LoanContractRequest(
+        repository.save(new LoanContractRequest(
                 "1-123-12345G",
                 60000.0,
                 List.of(
-                        new Approver(Managers.P998ABC, ApprovalStatus.PENDING)
+                        new Approver(Managers.P998ABC, ApprovalStatus.PENDING),
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
                 ),
-                LoanType.GENERAL,
+                LoanType.MORTGAGE,
                 ContractStatus.PENDING,
                 LocalDateTime.now(),
                 "Not approved yet"
-        );
+        ));
 
-        LoanApprovalService loanApprovalService = new LoanApprovalService();
-        loanApprovalService.setRepository(repository);
+        var firstVote = loanApprovalService.decide(vote("1-123-12345G", Managers.P998ABC, ApprovalStatus.APPROVED));
+
+        assertEquals(ContractStatus.PENDING, firstVote.loanContractStatus());
+        assertEquals(ApprovalStatus.APPROVED, firstVote.approvers().get(0).status());
+
+        var secondVote = loanApprovalService.decide(vote("1-123-12345G", Managers.P998XYZ, ApprovalStatus.APPROVED));
+
+        assertEquals(ContractStatus.SENT, secondVote.loanContractStatus());
+        assertEquals(secondVote, repository.findById("1-123-12345G").orElseThrow());
+        assertEquals(1, repository.countContractsByStatus(ContractStatus.SENT));
+    }
 
-        repository.loanContractRequestList.add(existingContract);
+    @Test
+    void decideRejectsUnknownCustomerAndApprover() {
+        var repository = new LoanContractRepository();
+        var loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
 
-        LoanContractRequest inputRequest = new LoanContractRequest(
+        repository.save(new LoanContractRequest(
                 "1-123-12345G",
                 60000.0,
                 List.of(
@@ -273,97 +282,335 @@ class LoanApprovalServiceTest {
                 ContractStatus.PENDING,
                 LocalDateTime.now(),
                 "Not approved yet"
-        );
+        ));
+
+        assertThrows(NotFoundException.class, () ->
+                loanApprovalService.decide(vote("9-123-12345G", Managers.P998ABC, ApprovalStatus.APPROVED)));
+        assertThrows(ResponseStatusException.class, () ->
+                loanApprovalService.decide(vote("1-123-12345G", Managers.P998LOL, ApprovalStatus.APPROVED)));
+        assertThrows(InvalidDataException.class, () ->
+                loanApprovalService.decide(new LoanContractRequest("1-123-12345G", null, List.of(), null, null,
+                        null, null)));
+    }
+
+    @Test
+    void decideDoesNotLoseConcurrentVotes() throws Exception {
+        var repository = new LoanContractRepository();
+        var loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
 
-        LoanContractRequest updatedContract = loanApprovalService.populateMissingFields(inputRequest);
+        var managers = Managers.values();
+        var executor = Executors.newFixedThreadPool(managers.length);
+        try {
+            for (int round = 0; round < 100; round++) {
+                String customerId = String.format("1-123-%06d", round);
+                repository.save(new LoanContractRequest(
+                        customerId,
+                        60000.0,
+                        Arrays.stream(managers).map(manager -> new Approver(manager, ApprovalStatus.PENDING)).toList(),
+                        LoanType.MORTGAGE,
+                        ContractStatus.PENDING,
+                        LocalDateTime.now(),
+                        "Not approved yet"
+                ));
+
+                var start = new CountDownLatch(1);
+                List<Future<LoanContractRequest>> votes = new ArrayList<>();
+                for (Managers manager : managers) {
+                    votes.add(executor.submit(() -> {
+                        start.await();
+                        return loanApprovalService.decide(vote(customerId, manager, ApprovalStatus.APPROVED));
+                    }));
+                }
+                start.countDown();
+                for (Future<LoanContractRequest> vote : votes) {
+                    vote.get(10, TimeUnit.SECONDS);
+                }
+
+                var contract = repository.findById(customerId).orElseThrow();
+                assertTrue(contract.approvers().stream().allMatch(approver -> approver.status() == ApprovalStatus.APPROVED));
+                assertEquals(ContractStatus.SENT, contract.loanContractStatus());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
 
-        assertEquals(existingContract.customerId(), updatedContract.customerId());
-        assertEquals(inputRequest.approvers(), updatedContract.approvers());
-        assertEquals(inputRequest.loanType(), updatedContract.loanType());
-        assertEquals(inputRequest.loanContractStatus(), updatedContract.loanContractStatus());
-        assertEquals(inputRequest.createdDate(), updatedContract.createdDate());
-        assertEquals(inputRequest.sentToCustomerDate(), updatedContract.sentToCustomerDate());
+        assertEquals(100, repository.countContractsByStatus(ContractStatus.SENT));
+        assertEquals(100, repository.countSentContracts(1));
     }
 
     @Test
-    void countContractsByStatus() {
-        List<LoanContractRequest> contracts = new ArrayList<>();
+    void decideAndDeleteWithIfMatch() throws NotFoundException, InvalidDataException, ConflictException {
+        var repository = new LoanContractRepository();
+        var loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
 
-        LoanContractRequest contract1 = new LoanContractRequest(
+        repository.save(new LoanContractRequest(
                 "1-123-12345G",
-                50000.0,
+                60000.0,
                 List.of(
+                        new Approver(Managers.P998ABC, ApprovalStatus.PENDING),
                         new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
                 ),
-                LoanType.GENERAL,
+                LoanType.MORTGAGE,
                 ContractStatus.PENDING,
                 LocalDateTime.now(),
                 "Not approved yet"
-        );
+        ));
+        long read = repository.findVersionedById("1-123-12345G").orElseThrow().version();
 
-        LoanContractRequest contract2 = new LoanContractRequest(
-                "2-123-12345G",
+        var decided = loanApprovalService.decide(vote("1-123-12345G", Managers.P998ABC, ApprovalStatus.APPROVED), read);
+
+        assertTrue(decided.version() > read);
+        assertThrows(ConflictException.class, () ->
+                loanApprovalService.decide(vote("1-123-12345G", Managers.P998XYZ, ApprovalStatus.APPROVED), read));
+        assertEquals(ContractStatus.PENDING, repository.findById("1-123-12345G").orElseThrow().loanContractStatus());
+
+        assertThrows(ConflictException.class, () -> loanApprovalService.delete("1-123-12345G", read));
+        assertThrows(NotFoundException.class, () -> loanApprovalService.delete("9-123-12345G", read));
+        loanApprovalService.delete("1-123-12345G", decided.version());
+
+        assertFalse(repository.existsById("1-123-12345G"));
+        assertEquals(0, loanApprovalService.optimisticRetries());
+    }
+
+    @Test
+    void create() throws ConflictException {
+        var repository = new LoanContractRepository();
+        var loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
+
+        var contractRequest = new LoanContractRequest(
+                "1-123-12345G",
                 60000.0,
                 List.of(
-                        new Approver(Managers.P998LOL, ApprovalStatus.APPROVED)
+                        new Approver(Managers.P998ABC, ApprovalStatus.APPROVED)
                 ),
                 LoanType.GENERAL,
-                ContractStatus.SENT,
-                LocalDateTime.now(),
-                LocalDateTime.now().toString()
+                null,
+                null,
+                null
         );
 
-        contracts.add(contract1);
-        contracts.add(contract2);
+        var created = loanApprovalService.create(contractRequest);
 
-        when(repository.findAllContracts()).thenReturn(contracts);
+        assertEquals(ContractStatus.PENDING, created.loanContractStatus());
+        assertEquals(ApprovalStatus.PENDING, created.approvers().get(0).status());
+        assertEquals(created, repository.findById("1-123-12345G").orElseThrow());
+        assertThrows(ConflictException.class, () -> loanApprovalService.create(contractRequest));
+    }
 
-        var pendingContracts = loanApprovalService.countContractsByStatus(contracts,
-                ContractStatus.PENDING);
-        var sentContracts = loanApprovalService.countContractsByStatus(contracts,
-                ContractStatus.SENT);
+    @Test
+    void createAdmitsOnePendingContractUnderConcurrency() throws Exception {
+        var repository = new LoanContractRepository();
+        var loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
 
-        assertEquals(1, pendingContracts);
-        assertEquals(1, sentContracts);
+        var contractRequest = new LoanContractRequest(
+                "1-123-12345G",
+                60000.0,
+                List.of(
+                        new Approver(Managers.P998ABC, ApprovalStatus.PENDING)
+                ),
+                LoanType.GENERAL,
+                null,
+                null,
+                null
+        );
+
+        int attempts = 200;
+        var executor = Executors.newFixedThreadPool(16);
+        var start = new CountDownLatch(1);
+        var conflicts = new AtomicInteger();
+        List<Future<?>> creates = new ArrayList<>();
+        try {
+            for (int i = 0; i < attempts; i++) {
+                creates.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        loanApprovalService.create(contractRequest);
+                    } catch (ConflictException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> create : creates) {
+                create.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(attempts - 1, conflicts.get());
+        assertEquals(1, repository.count());
+        assertEquals(1, repository.countContractsByStatus(ContractStatus.PENDING));
     }
 
     @Test
-    void conflictException() {
-        LoanContractRequest existingContract = new LoanContractRequest(
+    void decideAll() {
+        var repository = new LoanContractRepository();
+        var loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
+
+        repository.save(new LoanContractRequest(
                 "1-123-12345G",
-                50000.0,
+                60000.0,
+                List.of(
+                        new Approver(Managers.P998ABC, ApprovalStatus.PENDING),
+                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING)
+                ),
+                LoanType.MORTGAGE,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        ));
+        repository.save(new LoanContractRequest(
+                "2-123-12345G",
+                30000.0,
                 List.of(
-                        new Approver(Managers.P998XYZ, ApprovalStatus.PENDING),
                         new Approver(Managers.P998ABC, ApprovalStatus.PENDING)
                 ),
                 LoanType.GENERAL,
                 ContractStatus.PENDING,
                 LocalDateTime.now(),
                 "Not approved yet"
-        );
+        ));
+
+        var results = loanApprovalService.decideAll(List.of(
+                new DecisionVote("1-123-12345G", Managers.P998ABC, ApprovalStatus.APPROVED),
+                new DecisionVote("2-123-12345G", Managers.P998ABC, ApprovalStatus.REJECTED),
+                new DecisionVote("1-123-12345G", Managers.P998XYZ, ApprovalStatus.APPROVED),
+                new DecisionVote("1-123-12345G", Managers.P998LOL, ApprovalStatus.APPROVED),
+                new DecisionVote("9-123-12345G", Managers.P998ABC, ApprovalStatus.APPROVED),
+                new DecisionVote("2-123-12345G", null, ApprovalStatus.APPROVED)
+        ));
+
+        assertEquals(List.of(204, 204, 204, 404, 404, 400),
+                results.stream().map(BatchItemResult::status).toList());
+        assertEquals("Approver not found!", results.get(3).message());
+        assertEquals(ContractStatus.SENT, repository.findById("1-123-12345G").orElseThrow().loanContractStatus());
+        assertEquals(ApprovalStatus.REJECTED,
+                repository.findById("2-123-12345G").orElseThrow().approvers().get(0).status());
+        assertEquals(1, repository.countContractsByStatus(ContractStatus.SENT));
+        assertEquals(1, repository.countContractsByStatus(ContractStatus.PENDING));
+    }
 
-        when(repository.statusContractPending(existingContract)).thenReturn(true);
+    @Test
+    void decideAllLeavesContractWithoutApplicableVotesUntouched() {
+        var repository = new LoanContractRepository();
+        var loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
 
-        assertThrows(ConflictException.class, () -> {
-            loanApprovalService.conflictException(existingContract);
-        });
+        repository.save(new LoanContractRequest(
+                "1-123-12345G",
+                30000.0,
+                List.of(
+                        new Approver(Managers.P998ABC, ApprovalStatus.APPROVED)
+                ),
+                LoanType.GENERAL,
+                ContractStatus.SENT,
+                LocalDateTime.now(),
+                "2024-01-01T10:00"
+        ));
+        var stored = repository.findVersionedById("1-123-12345G").orElseThrow();
+
+        var results = loanApprovalService.decideAll(List.of(
+                new DecisionVote("1-123-12345G", Managers.P998LOL, ApprovalStatus.APPROVED)));
+
+        assertEquals(404, results.get(0).status());
+        var after = repository.findVersionedById("1-123-12345G").orElseThrow();
+        assertEquals(stored.version(), after.version());
+        assertSame(stored.contract(), after.contract());
     }
 
     @Test
-    void notFoundException() {
-        String nonExistentCustomerId = "9-123-12345G";
+    void findPage() throws InvalidDataException {
+        var repository = new LoanContractRepository();
+        var loanApprovalService = new LoanApprovalService();
+        loanApprovalService.setRepository(repository);
 
-        assertThrows(NotFoundException.class, () -> {
-            loanApprovalService.notFoundException(nonExistentCustomerId);
-        });
+        for (String customerId : List.of("1-123-12345G", "2-123-12345G", "3-123-12345G")) {
+            repository.save(new LoanContractRequest(
+                    customerId,
+                    60000.0,
+                    List.of(
+                            new Approver(Managers.P998ABC, ApprovalStatus.PENDING)
+                    ),
+                    LoanType.GENERAL,
+                    ContractStatus.PENDING,
+                    LocalDateTime.now(),
+                    "Not approved yet"
+            ));
+        }
+
+        var first = loanApprovalService.findPage(null, 2);
+
+        assertEquals(2, first.contracts().size());
+        assertEquals("2-123-12345G", first.next());
+
+        var last = loanApprovalService.findPage(first.next(), 2);
+
+        assertEquals("3-123-12345G", last.contracts().get(0).customerId());
+        assertNull(last.next());
+        assertThrows(InvalidDataException.class, () -> loanApprovalService.findPage(null, 0));
+        assertThrows(InvalidDataException.class,
+                () -> loanApprovalService.findPage(null, LoanApprovalService.MAX_PAGE_SIZE + 1));
+    }
+
+    private static LoanContractRequest vote(String customerId, Managers manager, ApprovalStatus status) {
+        return new LoanContractRequest(
+                customerId,
+                null,
+                List.of(new Approver(manager, status)),
+                null,
+                null,
+                null,
+                null
+        );
     }
 
     @Test
-    void testNotFoundException() {
-        String nonExistentCustomerId = "9-123-12345G";
+    void summarizeLoansMatchesWithAndWithoutColumns() throws NotFoundException, InvalidDataException {
+        var indexed = new LoanApprovalService();
+        indexed.setRepository(new LoanContractRepository());
+        var columns = new ContractColumns();
+        var columnar = new LoanApprovalService();
+        columnar.setRepository(new LoanContractRepository(LoanContractRepository.DEFAULT_SENT_HORIZON_MINUTES,
+                (ContractJournal) null, columns));
+        columnar.setColumns(columns);
+
+        for (var service : List.of(indexed, columnar)) {
+            for (int i = 0; i < 30; i++) {
+                service.repository.save(new LoanContractRequest(
+                        String.format("1-123-%05dG", i),
+                        1000.0 + i * 10.25,
+                        List.of(new Approver(i % 2 == 0 ? Managers.P998ABC : Managers.P998XYZ, ApprovalStatus.PENDING)),
+                        i % 3 == 0 ? LoanType.MORTGAGE : LoanType.GENERAL,
+                        ContractStatus.PENDING,
+                        LocalDateTime.of(2024, 5, 1, 9, 0),
+                        "Not approved yet"));
+            }
+            for (int i = 0; i < 30; i += 4) {
+                service.decide(vote(String.format("1-123-%05dG", i), Managers.P998ABC, ApprovalStatus.APPROVED));
+            }
+        }
 
-        assertThrows(NotFoundException.class, () -> {
-            loanApprovalService.notFoundException(nonExistentCustomerId);
-        });
+        assertEquals(new ColumnSummary(30, 34458.75, 1148.63, 1000.0, 1297.25), indexed.summarizeLoans(null, null, null));
+        assertEquals(new ColumnSummary(5, 5779.0, 1155.8, 1041.0, 1287.0),
+                indexed.summarizeLoans(ContractStatus.SENT, null, Managers.P998ABC));
+        for (ContractStatus status : ContractStatus.values()) {
+            for (LoanType loanType : LoanType.values()) {
+                for (Managers approver : Managers.values()) {
+                    assertEquals(indexed.summarizeLoans(status, loanType, approver),
+                            columnar.summarizeLoans(status, loanType, approver));
+                    assertEquals(indexed.summarizeLoans(null, loanType, approver),
+                            columnar.summarizeLoans(null, loanType, approver));
+                    assertEquals(indexed.summarizeLoans(null, null, approver),
+                            columnar.summarizeLoans(null, null, approver));
+                }
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,91 @@
+package com.mybank.contractapproval.statistics;
+
+import com.mybank.contractapproval.journal.ContractJournal;
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+import com.mybank.contractapproval.repository.LoanContractRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContractColumnsTest {
+
+    private static final Managers[] MANAGERS = Managers.values();
+
+    private ContractColumns columns;
+    private LoanContractRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        columns = new ContractColumns();
+        repository = new LoanContractRepository(LoanContractRepository.DEFAULT_SENT_HORIZON_MINUTES,
+                (ContractJournal) null, columns);
+    }
+
+    private static LoanContractRequest contract(int i, ApprovalStatus first, ContractStatus status) {
+        return new LoanContractRequest(
+                String.format("1-123-%06d", i),
+                100.0 + i * 0.25,
+                List.of(new Approver(MANAGERS[i % MANAGERS.length], first),
+                        new Approver(MANAGERS[(i + 1) % MANAGERS.length], ApprovalStatus.PENDING)),
+                i % 3 == 0 ? LoanType.MORTGAGE : LoanType.GENERAL,
+                status,
+                LocalDateTime.of(2024, 5, 1, 9, 0),
+                "Not approved yet");
+    }
+
+    @Test
+    void emptyColumns() {
+        assertEquals(new ColumnSummary(0, 0.0, 0.0, 0.0, 0.0), columns.summarize());
+    }
+
+    @Test
+    void matchesAScanOfTheStoredContracts() {
+        for (int i = 0; i < 3000; i++) {
+            repository.save(contract(i, ApprovalStatus.PENDING, ContractStatus.PENDING));
+        }
+        for (int i = 0; i < 3000; i += 2) {
+            repository.replace(contract(i, ApprovalStatus.APPROVED, i % 4 == 0 ? ContractStatus.SENT : ContractStatus.PENDING));
+        }
+        for (int i = 0; i < 3000; i += 5) {
+            repository.deleteById(String.format("1-123-%06d", i));
+        }
+        for (int i = 3000; i < 3300; i++) {
+            repository.save(contract(i, ApprovalStatus.APPROVED, ContractStatus.PENDING));
+        }
+
+        for (ContractStatus status : Stream.concat(Stream.of((ContractStatus) null), Stream.of(ContractStatus.values())).toList()) {
+            for (LoanType loanType : Stream.concat(Stream.of((LoanType) null), Stream.of(LoanType.values())).toList()) {
+                for (Managers approver : Stream.concat(Stream.of((Managers) null), Stream.of(MANAGERS)).toList()) {
+                    assertEquals(expected(status, loanType, approver), columns.summarize(status, loanType, approver),
+                            status + " " + loanType + " " + approver);
+                }
+            }
+        }
+    }
+
+    private ColumnSummary expected(ContractStatus status, LoanType loanType, Managers approver) {
+        var amounts = repository.findAllContracts().stream()
+                .filter(contract -> status == null || contract.loanContractStatus() == status)
+                .filter(contract -> loanType == null || contract.loanType() == loanType)
+                .filter(contract -> approver == null || contract.approvers().stream()
+                        .anyMatch(candidate -> candidate.username() == approver))
+                .mapToLong(contract -> Math.round(contract.loanAmount() * 100))
+                .summaryStatistics();
+        if (amounts.getCount() == 0) {
+            return new ColumnSummary(0, 0.0, 0.0, 0.0, 0.0);
+        }
+        return new ColumnSummary(amounts.getCount(), amounts.getSum() / 100.0,
+                Math.round((double) amounts.getSum() / amounts.getCount()) / 100.0,
+                amounts.getMin() / 100.0, amounts.getMax() / 100.0);
+    }
+}
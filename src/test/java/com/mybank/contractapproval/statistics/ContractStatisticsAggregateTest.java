@@ -0,0 +1,122 @@
+package com.mybank.contractapproval.statistics;
+
+import com.mybank.contractapproval.events.ContractEvent;
+import com.mybank.contractapproval.model.Approver;
+import com.mybank.contractapproval.model.LoanContractRequest;
+import com.mybank.contractapproval.model.enums.ApprovalStatus;
+import com.mybank.contractapproval.model.enums.ContractStatus;
+import com.mybank.contractapproval.model.enums.LoanType;
+import com.mybank.contractapproval.model.enums.Managers;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContractStatisticsAggregateTest {
+
+    private static LoanContractRequest contract(String customerId, double loanAmount, ApprovalStatus status) {
+        return new LoanContractRequest(
+                customerId,
+                loanAmount,
+                List.of(
+                        new Approver(Managers.P998XYZ, status)
+                ),
+                LoanType.GENERAL,
+                ContractStatus.PENDING,
+                LocalDateTime.now(),
+                "Not approved yet"
+        );
+    }
+
+    @Test
+    void emptyAggregate() {
+        var aggregate = new ContractStatisticsAggregate();
+
+        assertEquals(0, aggregate.count());
+        assertEquals(0.0, aggregate.sum());
+        assertEquals(0.0, aggregate.average());
+        assertEquals(0.0, aggregate.max());
+        assertEquals(0.0, aggregate.min());
+        assertEquals(0, aggregate.approverStatistics().size());
+    }
+
+    @Test
+    void applyInserts() {
+        var aggregate = new ContractStatisticsAggregate();
+
+        aggregate.apply(null, contract("1-123-12345G", 50000.0, ApprovalStatus.PENDING));
+        aggregate.apply(null, contract("2-456-67890H", 75000.0, ApprovalStatus.APPROVED));
+        aggregate.apply(null, contract("3-789-09876J", 60000.0, ApprovalStatus.APPROVED));
+
+        assertEquals(3, aggregate.count());
+        assertEquals(185000.0, aggregate.sum());
+        assertEquals(61666.67, aggregate.average());
+        assertEquals(75000.0, aggregate.max());
+        assertEquals(50000.0, aggregate.min());
+        assertEquals(2, aggregate.approvals(Managers.P998XYZ));
+    }
+
+    @Test
+    void minAndMaxSurviveDeletes() {
+        var aggregate = new ContractStatisticsAggregate();
+        var smallest = contract("1-123-12345G", 100.0, ApprovalStatus.PENDING);
+        var largest = contract("2-456-67890H", 900.0, ApprovalStatus.PENDING);
+
+        aggregate.apply(null, smallest);
+        aggregate.apply(null, contract("3-789-09876J", 500.0, ApprovalStatus.PENDING));
+        aggregate.apply(null, largest);
+
+        aggregate.apply(smallest, null);
+        aggregate.apply(largest, null);
+
+        assertEquals(1, aggregate.count());
+        assertEquals(500.0, aggregate.min());
+        assertEquals(500.0, aggregate.max());
+        assertEquals(500.0, aggregate.sum());
+    }
+
+    @Test
+    void replaceMovesApprovals() {
+        var aggregate = new ContractStatisticsAggregate();
+        var pending = contract("1-123-12345G", 4050.9, ApprovalStatus.PENDING);
+        var approved = contract("1-123-12345G", 4050.9, ApprovalStatus.APPROVED);
+
+        aggregate.apply(null, pending);
+        aggregate.apply(pending, approved);
+
+        assertEquals(1, aggregate.count());
+        assertEquals(4050.9, aggregate.sum());
+        assertEquals(1, aggregate.approvals(Managers.P998XYZ));
+        assertEquals("P998XYZ", aggregate.approverStatistics().get(0).getUsername());
+
+        aggregate.apply(approved, null);
+
+        assertEquals(0, aggregate.approvals(Managers.P998XYZ));
+        assertEquals(0, aggregate.count());
+    }
+
+    @Test
+    void appliesEvents() {
+        var aggregate = new ContractStatisticsAggregate();
+        var pending = contract("1-123-12345G", 4050.9, ApprovalStatus.PENDING);
+
+        aggregate.apply(new ContractEvent.Created(pending));
+        aggregate.apply(new ContractEvent.ApproverVoted("1-123-12345G", Managers.P998XYZ,
+                ApprovalStatus.PENDING, ApprovalStatus.APPROVED));
+
+        assertEquals(1, aggregate.count());
+        assertEquals(1, aggregate.approvals(Managers.P998XYZ));
+
+        aggregate.apply(new ContractEvent.ApproverVoted("1-123-12345G", Managers.P998XYZ,
+                ApprovalStatus.APPROVED, ApprovalStatus.REJECTED));
+
+        assertEquals(0, aggregate.approvals(Managers.P998XYZ));
+
+        aggregate.apply(new ContractEvent.Deleted(pending));
+
+        assertEquals(0, aggregate.count());
+        assertEquals(0.0, aggregate.sum());
+    }
+}
@@ -0,0 +1,75 @@
+package com.mybank.contractapproval.statistics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SentContractsWindowTest {
+
+    private final AtomicLong clock = new AtomicLong(1_700_000_000L);
+
+    @Test
+    void countsTransitionsInsideWindow() {
+        var window = new SentContractsWindow(60, clock::get);
+
+        window.record();
+        window.record();
+        clock.addAndGet(90);
+        window.record();
+
+        assertEquals(1, window.count(1));
+        assertEquals(3, window.count(2));
+    }
+
+    @Test
+    void windowIsCappedAtHorizon() {
+        var window = new SentContractsWindow(1, clock::get);
+
+        window.record();
+        clock.addAndGet(30);
+        window.record();
+
+        assertEquals(2, window.count(1));
+        assertEquals(2, window.count(600));
+    }
+
+    @Test
+    void staleBucketsAreRecycled() {
+        var window = new SentContractsWindow(1, clock::get);
+
+        window.record();
+        window.record();
+        clock.addAndGet(60);
+        window.record();
+
+        assertEquals(1, window.count(1));
+    }
+
+    @Test
+    void longWindowsCombineMinuteAndSecondBuckets() {
+        var window = new SentContractsWindow(1440, clock::get);
+        var recorded = new ArrayList<Long>();
+        var random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            clock.addAndGet(random.nextInt(40));
+            window.record();
+            recorded.add(clock.get());
+        }
+
+        for (int minutes : new int[] {1, 2, 59, 60, 61, 1000, 1440, 5000}) {
+            long from = clock.get() - Math.min(minutes, 1440) * 60L + 1;
+            long expected = recorded.stream().filter(second -> second >= from).count();
+            assertEquals(expected, window.count(minutes), "window of " + minutes + " minutes");
+        }
+    }
+
+    @Test
+    void rejectsEmptyHorizon() {
+        assertThrows(IllegalArgumentException.class, () -> new SentContractsWindow(0, clock::get));
+    }
+}